@@ -0,0 +1,64 @@
+package com.mylaesoftware.actors;
+
+class AimdConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private double limit;
+    private long baselineLatencyNanos = Long.MAX_VALUE;
+    private double averageLatencyNanos = -1;
+    private long lastDecreaseAt = Long.MIN_VALUE;
+    private int successesSinceIncrease = 0;
+    private ScalingDecision lastDecision;
+
+    AimdConcurrencyLimiter(int minLimit, int maxLimit, double latencyTolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = minLimit;
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    ScalingDecision getLastDecision() {
+        return lastDecision;
+    }
+
+    void onSuccess(long latencyNanos, int inFlight, long now) {
+        baselineLatencyNanos = Math.min(baselineLatencyNanos, latencyNanos);
+        averageLatencyNanos = averageLatencyNanos < 0 ? latencyNanos : averageLatencyNanos + SMOOTHING_FACTOR * (latencyNanos - averageLatencyNanos);
+        if (averageLatencyNanos > baselineLatencyNanos * latencyTolerance) {
+            decrease(ScalingDecision.Reason.DECREASE_ON_LATENCY, latencyNanos, now);
+        } else if (inFlight * 2 >= limit && ++successesSinceIncrease >= getLimit()) {
+            successesSinceIncrease = 0;
+            change(Math.min(maxLimit, limit + 1), ScalingDecision.Reason.INCREASE_ON_SUCCESS, latencyNanos);
+        }
+    }
+
+    void onFailure(long latencyNanos, long now) {
+        decrease(ScalingDecision.Reason.DECREASE_ON_FAILURE, latencyNanos, now);
+    }
+
+    private void decrease(ScalingDecision.Reason reason, long latencyNanos, long now) {
+        if (lastDecreaseAt != Long.MIN_VALUE && now - lastDecreaseAt < averageLatencyNanos) {
+            return;
+        }
+        lastDecreaseAt = now;
+        successesSinceIncrease = 0;
+        change(Math.max(minLimit, limit * BACKOFF_RATIO), reason, latencyNanos);
+    }
+
+    private void change(double newLimit, ScalingDecision.Reason reason, long latencyNanos) {
+        int previousLimit = getLimit();
+        limit = newLimit;
+        if (getLimit() != previousLimit) {
+            lastDecision = new ScalingDecision(reason, previousLimit, getLimit(), latencyNanos, baselineLatencyNanos);
+        }
+    }
+}
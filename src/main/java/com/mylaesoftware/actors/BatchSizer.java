@@ -0,0 +1,33 @@
+package com.mylaesoftware.actors;
+
+class BatchSizer {
+
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    private final int batchSize;
+    private final int maxBatchSize;
+    private final long targetBatchNanos;
+    private double averageItemNanos = -1;
+
+    BatchSizer(WorkDispatcherSettings settings) {
+        this.batchSize = settings.getBatchSize();
+        this.maxBatchSize = settings.getMaxBatchSize();
+        this.targetBatchNanos = settings.isAdaptiveBatchSize() ? settings.getTargetBatchDuration().toNanos() : 0L;
+    }
+
+    int nextBatchSize() {
+        if (targetBatchNanos == 0L || averageItemNanos < 0) {
+            return batchSize;
+        }
+        long size = Math.round(targetBatchNanos / Math.max(averageItemNanos, 1d));
+        return (int) Math.max(1L, Math.min(maxBatchSize, size));
+    }
+
+    void recordItem(long processingNanos) {
+        if (targetBatchNanos == 0L || processingNanos < 0L) {
+            return;
+        }
+        double itemNanos = processingNanos;
+        averageItemNanos = averageItemNanos < 0 ? itemNanos : averageItemNanos + SMOOTHING_FACTOR * (itemNanos - averageItemNanos);
+    }
+}
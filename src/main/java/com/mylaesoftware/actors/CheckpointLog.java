@@ -0,0 +1,218 @@
+package com.mylaesoftware.actors;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+class CheckpointLog<E> {
+
+    private static final int FRAME_HEADER_SIZE = 8;
+    private static final int REGION_SIZE = 1 << 20;
+    static final long CLOSE_TIMEOUT_SECONDS = 5L;
+    private static final Map<Path, CompletableFuture<Void>> CLOSING = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final PayloadCodec<E> resultCodec;
+    private final long syncIntervalNanos;
+    private final ExecutorService writer;
+    private final Checkpoint<E> restored;
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long position;
+    private long lastSyncAt;
+
+    CheckpointLog(Path file, PayloadCodec<E> resultCodec, long syncIntervalNanos) {
+        this.file = file;
+        this.resultCodec = resultCodec;
+        this.syncIntervalNanos = syncIntervalNanos;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.restored = read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.lastSyncAt = System.nanoTime();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer-" + file.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    Checkpoint<E> getRestored() {
+        return restored;
+    }
+
+    void append(long[] completedIds, int count, long itemsProcessed, E accumulatedResult, Map<Class<? extends Throwable>, Integer> failures) {
+        byte[] frame = encode(Arrays.copyOf(completedIds, count), itemsProcessed, accumulatedResult, failures);
+        writer.execute(() -> write(frame));
+    }
+
+    private byte[] encode(long[] completedIds, long itemsProcessed, E accumulatedResult, Map<Class<? extends Throwable>, Integer> failures) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(FRAME_HEADER_SIZE + completedIds.length * 8 + 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(0L);
+            out.writeInt(completedIds.length);
+            for (long completedId : completedIds) {
+                out.writeLong(completedId);
+            }
+            out.writeLong(itemsProcessed);
+            resultCodec.encode(accumulatedResult, out);
+            out.writeInt(failures.size());
+            for (Map.Entry<Class<? extends Throwable>, Integer> failure : failures.entrySet()) {
+                out.writeUTF(failure.getKey().getName());
+                out.writeInt(failure.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] frame = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(frame, FRAME_HEADER_SIZE, frame.length - FRAME_HEADER_SIZE);
+        ByteBuffer.wrap(frame).putInt(frame.length - FRAME_HEADER_SIZE).putInt((int) crc.getValue());
+        return frame;
+    }
+
+    void complete() {
+        shutdown(() -> {
+            closeChannel();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    void close() {
+        shutdown(this::closeChannel);
+    }
+
+    private void shutdown(Runnable lastTask) {
+        Path key = file.toAbsolutePath();
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(lastTask, writer);
+        writer.shutdown();
+        CLOSING.put(key, closed);
+        closed.whenComplete((ignored, failure) -> CLOSING.remove(key, closed));
+    }
+
+    static CompletableFuture<Void> closing(Path file) {
+        return CLOSING.getOrDefault(file.toAbsolutePath(), CompletableFuture.completedFuture(null));
+    }
+
+    private void write(byte[] frame) {
+        try {
+            if (region == null || region.remaining() < frame.length + 4) {
+                if (region != null) {
+                    region.force();
+                }
+                region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(REGION_SIZE, frame.length + 4));
+            }
+            region.put(frame);
+            position += frame.length;
+            long now = System.nanoTime();
+            if (now - lastSyncAt >= syncIntervalNanos) {
+                region.force();
+                lastSyncAt = now;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            if (region != null) {
+                region.force();
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Checkpoint<E> read() throws IOException {
+        long size = channel.size();
+        if (size == 0L) {
+            return null;
+        }
+        MappedByteBuffer log = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        Checkpoint<E> checkpoint = null;
+        SegmentedBitSet completed = new SegmentedBitSet();
+        while (log.remaining() >= FRAME_HEADER_SIZE) {
+            int length = log.getInt();
+            int checksum = log.getInt();
+            if (length <= 0 || length > log.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            log.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            checkpoint = decode(payload, completed);
+            position += FRAME_HEADER_SIZE + length;
+        }
+        return checkpoint;
+    }
+
+    private Checkpoint<E> decode(byte[] payload, SegmentedBitSet completed) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                completed.set(in.readLong());
+            }
+            long itemsProcessed = in.readLong();
+            E accumulatedResult = resultCodec.decode(in);
+            int numberOfFailures = in.readInt();
+            Map<Class<? extends Throwable>, Integer> failures = new HashMap<>(numberOfFailures * 2);
+            for (int i = 0; i < numberOfFailures; i++) {
+                failures.merge(failureClass(in.readUTF()), in.readInt(), Integer::sum);
+            }
+            return new Checkpoint<>(completed, itemsProcessed, accumulatedResult, failures);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Throwable> failureClass(String className) {
+        try {
+            Class<?> failureClass = Class.forName(className, false, CheckpointLog.class.getClassLoader());
+            return Throwable.class.isAssignableFrom(failureClass) ? (Class<? extends Throwable>) failureClass : RemoteWorkFailure.class;
+        } catch (ClassNotFoundException e) {
+            return RemoteWorkFailure.class;
+        }
+    }
+
+    static class Checkpoint<E> {
+        final SegmentedBitSet completedWorkIds;
+        final long itemsProcessed;
+        final E accumulatedResult;
+        final Map<Class<? extends Throwable>, Integer> failures;
+
+        Checkpoint(SegmentedBitSet completedWorkIds, long itemsProcessed, E accumulatedResult, Map<Class<? extends Throwable>, Integer> failures) {
+            this.completedWorkIds = completedWorkIds;
+            this.itemsProcessed = itemsProcessed;
+            this.accumulatedResult = accumulatedResult;
+            this.failures = failures;
+        }
+    }
+}
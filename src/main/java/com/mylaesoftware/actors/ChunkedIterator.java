@@ -0,0 +1,39 @@
+package com.mylaesoftware.actors;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+class ChunkedIterator<T> implements Iterator<T> {
+
+    private final Iterator<T> sharedSource;
+    private final int chunkSize;
+    private final Deque<T> chunk;
+
+    ChunkedIterator(Iterator<T> sharedSource, int chunkSize) {
+        this.sharedSource = sharedSource;
+        this.chunkSize = chunkSize;
+        this.chunk = new ArrayDeque<>(chunkSize);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (chunk.isEmpty()) {
+            synchronized (sharedSource) {
+                while (chunk.size() < chunkSize && sharedSource.hasNext()) {
+                    chunk.addLast(sharedSource.next());
+                }
+            }
+        }
+        return !chunk.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return chunk.pollFirst();
+    }
+}
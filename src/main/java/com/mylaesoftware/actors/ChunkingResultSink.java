@@ -0,0 +1,47 @@
+package com.mylaesoftware.actors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+class ChunkingResultSink<T, E> implements ResultSink<T, E> {
+
+    private final int chunkSize;
+    private final ResultSink<T, E> downstream;
+    private List<SinkRecord<T, E>> chunk;
+
+    ChunkingResultSink(int chunkSize, ResultSink<T, E> downstream) {
+        this.chunkSize = chunkSize;
+        this.downstream = downstream;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public synchronized CompletionStage<Void> write(List<SinkRecord<T, E>> records) {
+        CompletionStage<Void> written = CompletableFuture.completedFuture(null);
+        for (SinkRecord<T, E> record : records) {
+            chunk.add(record);
+            if (chunk.size() == chunkSize) {
+                written = written.thenCompose(writeChunk());
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public synchronized CompletionStage<Void> close() {
+        CompletionStage<Void> written = CompletableFuture.completedFuture(null);
+        if (!chunk.isEmpty()) {
+            written = written.thenCompose(writeChunk());
+        }
+        return written.thenCompose(done -> downstream.close());
+    }
+
+    private Function<Void, CompletionStage<Void>> writeChunk() {
+        List<SinkRecord<T, E>> full = chunk;
+        chunk = new ArrayList<>(chunkSize);
+        return done -> downstream.write(full);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mylaesoftware.actors;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+class CostAwareScheduler<T> {
+
+    private final ToLongFunction<T> costEstimator;
+    private final int lookahead;
+    private final long maxCostPerWorker;
+    private final TreeMap<Long, Deque<WorkItem<T>>> window = new TreeMap<>();
+    private int windowed = 0;
+
+    CostAwareScheduler(ToLongFunction<T> costEstimator, int lookahead, long maxCostPerWorker) {
+        this.costEstimator = costEstimator;
+        this.lookahead = lookahead;
+        this.maxCostPerWorker = maxCostPerWorker;
+    }
+
+    void estimate(WorkItem<T> item) {
+        item.cost = Math.max(0L, costEstimator.applyAsLong(item.work));
+    }
+
+    boolean fits(long costInFlight, WorkItem<T> item) {
+        return costInFlight == 0L || item.cost <= maxCostPerWorker - costInFlight;
+    }
+
+    WorkItem<T> next(long costInFlight, Deque<WorkItem<T>> ready) {
+        while (windowed < lookahead && !ready.isEmpty()) {
+            WorkItem<T> item = ready.pollFirst();
+            window.computeIfAbsent(item.cost, cost -> new ArrayDeque<>()).addLast(item);
+            windowed++;
+        }
+        Map.Entry<Long, Deque<WorkItem<T>>> mostExpensive = costInFlight == 0L ? window.lastEntry() : window.floorEntry(maxCostPerWorker - costInFlight);
+        if (mostExpensive == null) {
+            return null;
+        }
+        WorkItem<T> item = mostExpensive.getValue().pollFirst();
+        if (mostExpensive.getValue().isEmpty()) {
+            window.remove(mostExpensive.getKey());
+        }
+        windowed--;
+        return item;
+    }
+
+    int size() {
+        return windowed;
+    }
+
+    int getLookahead() {
+        return lookahead;
+    }
+}
@@ -0,0 +1,94 @@
+package com.mylaesoftware.actors;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class DefaultPayloadCodec implements PayloadCodec<Object> {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte BYTES = 6;
+    private static final byte JAVA_SERIALIZED = 7;
+
+    @Override
+    public void encode(Object payload, DataOutput out) throws IOException {
+        if (payload == null) {
+            out.writeByte(NULL);
+        } else if (payload instanceof String) {
+            out.writeByte(STRING);
+            writeBytes(((String) payload).getBytes(StandardCharsets.UTF_8), out);
+        } else if (payload instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) payload);
+        } else if (payload instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) payload);
+        } else if (payload instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) payload);
+        } else if (payload instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) payload);
+        } else if (payload instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes((byte[]) payload, out);
+        } else {
+            out.writeByte(JAVA_SERIALIZED);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                objects.writeObject(payload);
+            }
+            writeBytes(bytes.toByteArray(), out);
+        }
+    }
+
+    @Override
+    public Object decode(DataInput in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case BOOLEAN:
+                return in.readBoolean();
+            case BYTES:
+                return readBytes(in);
+            case JAVA_SERIALIZED:
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+                    return objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            default:
+                throw new IOException("Unknown payload type " + type);
+        }
+    }
+
+    private static void writeBytes(byte[] bytes, DataOutput out) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mylaesoftware.actors;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class DispatcherMetrics {
+
+    private final long itemsProcessed;
+    private final double itemsPerSecond;
+    private final LatencyHistogram processingLatency;
+    private final LatencyHistogram roundTripLatency;
+    private final int workInFlight;
+    private final int workers;
+    private final int idleWorkers;
+    private final int mailboxDepth;
+    private final Map<Class<? extends Throwable>, Double> failuresPerSecond;
+
+    DispatcherMetrics(long itemsProcessed, double itemsPerSecond, LatencyHistogram processingLatency, LatencyHistogram roundTripLatency,
+                      int workInFlight, int workers, int idleWorkers, int mailboxDepth, Map<Class<? extends Throwable>, Double> failuresPerSecond) {
+        this.itemsProcessed = itemsProcessed;
+        this.itemsPerSecond = itemsPerSecond;
+        this.processingLatency = processingLatency;
+        this.roundTripLatency = roundTripLatency;
+        this.workInFlight = workInFlight;
+        this.workers = workers;
+        this.idleWorkers = idleWorkers;
+        this.mailboxDepth = mailboxDepth;
+        this.failuresPerSecond = Collections.unmodifiableMap(new HashMap<>(failuresPerSecond));
+    }
+
+    static DispatcherMetrics empty() {
+        return new DispatcherMetrics(0L, 0.0, new LatencyHistogram(), new LatencyHistogram(), 0, 0, 0, 0, Collections.emptyMap());
+    }
+
+    public long getItemsProcessed() {
+        return itemsProcessed;
+    }
+
+    public double getItemsPerSecond() {
+        return itemsPerSecond;
+    }
+
+    public LatencyHistogram getProcessingLatency() {
+        return processingLatency.copy();
+    }
+
+    public LatencyHistogram getRoundTripLatency() {
+        return roundTripLatency.copy();
+    }
+
+    public int getWorkInFlight() {
+        return workInFlight;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getIdleWorkers() {
+        return idleWorkers;
+    }
+
+    public int getMailboxDepth() {
+        return mailboxDepth;
+    }
+
+    public Map<Class<? extends Throwable>, Double> getFailuresPerSecond() {
+        return failuresPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "DispatcherMetrics{itemsProcessed=" + itemsProcessed + ", itemsPerSecond=" + itemsPerSecond + ", processingLatency=" + processingLatency
+                + ", roundTripLatency=" + roundTripLatency + ", workInFlight=" + workInFlight + ", workers=" + workers + ", idleWorkers=" + idleWorkers
+                + ", mailboxDepth=" + mailboxDepth + ", failuresPerSecond=" + failuresPerSecond + "}";
+    }
+}
@@ -0,0 +1,45 @@
+package com.mylaesoftware.actors;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class DispatcherMetricsRecorder {
+
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    private final LatencyHistogram processingLatency = new LatencyHistogram();
+    private final LatencyHistogram roundTripLatency = new LatencyHistogram();
+    private final RateMeter itemsProcessed;
+    private final Map<Class<? extends Throwable>, RateMeter> failures = new HashMap<>();
+
+    DispatcherMetricsRecorder(long now) {
+        this.itemsProcessed = new RateMeter(RATE_WINDOW_SECONDS, now);
+    }
+
+    void attemptCompleted(long roundTripNanos, long processingNanos) {
+        roundTripLatency.record(roundTripNanos);
+        if (processingNanos >= 0L) {
+            processingLatency.record(processingNanos);
+        }
+    }
+
+    void attemptFailed(Class<? extends Throwable> failureClass, long now) {
+        RateMeter meter = failures.get(failureClass);
+        if (meter == null) {
+            meter = new RateMeter(RATE_WINDOW_SECONDS, now);
+            failures.put(failureClass, meter);
+        }
+        meter.mark(now, 1L);
+    }
+
+    void itemsProcessed(long items, long now) {
+        itemsProcessed.mark(now, items);
+    }
+
+    DispatcherMetrics snapshot(long itemsProcessedSoFar, int workInFlight, int workers, int idleWorkers, int mailboxDepth, long now) {
+        Map<Class<? extends Throwable>, Double> failuresPerSecond = new HashMap<>();
+        failures.forEach((failureClass, meter) -> failuresPerSecond.put(failureClass, meter.ratePerSecond(now)));
+        return new DispatcherMetrics(itemsProcessedSoFar, itemsProcessed.ratePerSecond(now), processingLatency.copy(), roundTripLatency.copy(),
+                workInFlight, workers, idleWorkers, mailboxDepth, failuresPerSecond);
+    }
+}
@@ -0,0 +1,49 @@
+package com.mylaesoftware.actors;
+
+
+import java.util.Objects;
+
+public class DoubleProcessingResult implements ResultCollector<Double> {
+
+    private final FailureCounter failures = new FailureCounter();
+    private final DoubleResultAccumulator resultAccumulator;
+    private double partialResult;
+
+    public DoubleProcessingResult(double baseResult, DoubleResultAccumulator resultAccumulator) {
+        this.partialResult = baseResult;
+        this.resultAccumulator = Objects.requireNonNull(resultAccumulator, "resultAccumulator must not be null");
+    }
+
+    @Override
+    public void addSuccess(Double successfulResult) {
+        addSuccess(successfulResult.doubleValue());
+    }
+
+    public void addSuccess(double successfulResult) {
+        partialResult = resultAccumulator.accumulate(partialResult, successfulResult);
+    }
+
+    @Override
+    public void restore(Double accumulatedResult) {
+        partialResult = accumulatedResult;
+    }
+
+    @Override
+    public Double getAccumulatedResult() {
+        return partialResult;
+    }
+
+    public double getAccumulatedDouble() {
+        return partialResult;
+    }
+
+    @Override
+    public FailureCounter getFailureCounter() {
+        return failures;
+    }
+
+    @FunctionalInterface
+    public interface DoubleResultAccumulator {
+        double accumulate(double partialResult, double resultToAccumulate);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mylaesoftware.actors;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FailureCounter {
+
+    private final Map<Class<? extends Throwable>, Count> counts = new HashMap<>();
+
+    public void increment(Class<? extends Throwable> failureClass) {
+        add(failureClass, 1);
+    }
+
+    public void add(Class<? extends Throwable> failureClass, int count) {
+        Count current = counts.get(failureClass);
+        if (current == null) {
+            counts.put(failureClass, new Count(count));
+        } else {
+            current.value += count;
+        }
+    }
+
+    public int get(Class<? extends Throwable> failureClass) {
+        Count current = counts.get(failureClass);
+        return current == null ? 0 : current.value;
+    }
+
+    public Map<Class<? extends Throwable>, Integer> toMap() {
+        Map<Class<? extends Throwable>, Integer> failures = new HashMap<>(counts.size() * 2);
+        counts.forEach((failureClass, count) -> failures.put(failureClass, count.value));
+        return Collections.unmodifiableMap(failures);
+    }
+
+    private static class Count {
+        int value;
+
+        Count(int value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.mylaesoftware.actors;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+class FileResultSink<T, E> implements ResultSink<T, E> {
+
+    private final Path file;
+    private final Function<SinkRecord<T, E>, String> formatter;
+    private final Executor executor;
+    private BufferedWriter writer;
+
+    FileResultSink(Path file, Function<SinkRecord<T, E>, String> formatter, Executor executor) {
+        this.file = file;
+        this.formatter = formatter;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletionStage<Void> write(List<SinkRecord<T, E>> records) {
+        return CompletableFuture.runAsync(() -> writeLines(records), executor);
+    }
+
+    @Override
+    public CompletionStage<Void> close() {
+        return CompletableFuture.runAsync(this::closeWriter, executor);
+    }
+
+    private synchronized void writeLines(List<SinkRecord<T, E>> records) {
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            }
+            for (SinkRecord<T, E> record : records) {
+                writer.write(formatter.apply(record));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private synchronized void closeWriter() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mylaesoftware.actors;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+class IteratorWorkSource<T> implements WorkSource<T> {
+
+    private final Iterator<T> iterator;
+    private final Executor executor;
+
+    IteratorWorkSource(Iterator<T> iterator, Executor executor) {
+        this.iterator = Objects.requireNonNull(iterator, "iterator must not be null");
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletionStage<List<T>> pull(int maxItems) {
+        if (executor == null) {
+            return CompletableFuture.completedFuture(take(maxItems));
+        }
+        return CompletableFuture.supplyAsync(() -> take(maxItems), executor);
+    }
+
+    private List<T> take(int maxItems) {
+        List<T> items = new ArrayList<>(maxItems);
+        while (items.size() < maxItems && iterator.hasNext()) {
+            items.add(iterator.next());
+        }
+        return items;
+    }
+}
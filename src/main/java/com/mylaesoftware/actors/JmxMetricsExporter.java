@@ -0,0 +1,134 @@
+package com.mylaesoftware.actors;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public final class JmxMetricsExporter implements MetricsExporter, WorkDispatcherMetricsMXBean {
+
+    public static final String DOMAIN = "com.mylaesoftware.actors";
+
+    private final MBeanServer mBeanServer;
+    private final ObjectName objectName;
+    private volatile DispatcherMetrics metrics = DispatcherMetrics.empty();
+
+    private JmxMetricsExporter(MBeanServer mBeanServer, ObjectName objectName) {
+        this.mBeanServer = mBeanServer;
+        this.objectName = objectName;
+    }
+
+    public static JmxMetricsExporter register(String name) {
+        return register(ManagementFactory.getPlatformMBeanServer(), name);
+    }
+
+    public static JmxMetricsExporter register(MBeanServer mBeanServer, String name) {
+        Objects.requireNonNull(mBeanServer, "mBeanServer must not be null");
+        JmxMetricsExporter exporter = new JmxMetricsExporter(mBeanServer, objectName(Objects.requireNonNull(name, "name must not be null")));
+        try {
+            mBeanServer.registerMBean(exporter, exporter.objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register " + exporter.objectName, e);
+        }
+        return exporter;
+    }
+
+    static ObjectName objectName(String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=WorkDispatcher,name=" + name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("name is not a valid JMX key value: " + name, e);
+        }
+    }
+
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public void export(DispatcherMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot unregister " + objectName, e);
+        }
+    }
+
+    @Override
+    public long getItemsProcessed() {
+        return metrics.getItemsProcessed();
+    }
+
+    @Override
+    public double getItemsPerSecond() {
+        return metrics.getItemsPerSecond();
+    }
+
+    @Override
+    public long getProcessingLatencyMeanNanos() {
+        return Math.round(metrics.getProcessingLatency().getMean());
+    }
+
+    @Override
+    public long getProcessingLatencyP50Nanos() {
+        return metrics.getProcessingLatency().getValueAtPercentile(50.0);
+    }
+
+    @Override
+    public long getProcessingLatencyP99Nanos() {
+        return metrics.getProcessingLatency().getValueAtPercentile(99.0);
+    }
+
+    @Override
+    public long getProcessingLatencyMaxNanos() {
+        return metrics.getProcessingLatency().getMax();
+    }
+
+    @Override
+    public long getRoundTripLatencyP50Nanos() {
+        return metrics.getRoundTripLatency().getValueAtPercentile(50.0);
+    }
+
+    @Override
+    public long getRoundTripLatencyP99Nanos() {
+        return metrics.getRoundTripLatency().getValueAtPercentile(99.0);
+    }
+
+    @Override
+    public int getWorkInFlight() {
+        return metrics.getWorkInFlight();
+    }
+
+    @Override
+    public int getWorkers() {
+        return metrics.getWorkers();
+    }
+
+    @Override
+    public int getIdleWorkers() {
+        return metrics.getIdleWorkers();
+    }
+
+    @Override
+    public int getMailboxDepth() {
+        return metrics.getMailboxDepth();
+    }
+
+    @Override
+    public Map<String, Double> getFailuresPerSecond() {
+        Map<String, Double> failuresPerSecond = new HashMap<>();
+        metrics.getFailuresPerSecond().forEach((failureClass, rate) -> failuresPerSecond.put(failureClass.getName(), rate));
+        return failuresPerSecond;
+    }
+}
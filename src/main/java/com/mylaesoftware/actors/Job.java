@@ -0,0 +1,125 @@
+package com.mylaesoftware.actors;
+
+import scala.concurrent.ExecutionContextExecutor;
+import scala.concurrent.Future;
+
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+public final class Job<T, E> implements Cloneable {
+
+    private final WorkSource<T> workSource;
+    private final BiFunction<T, ExecutionContextExecutor, Future<E>> workFunction;
+    private final E baseResult;
+    private final ProcessingResult.ResultAccumulator<E> resultAccumulator;
+    private final ProgressSnapshotReporter<E> onCompleteCallback;
+    private ProgressSnapshotReporter<E> progressReportCallback;
+    private long progressReportEvery;
+    private int weight = 1;
+    private int maxConcurrency;
+    private int prefetch = 64;
+
+    private Job(WorkSource<T> workSource, BiFunction<T, ExecutionContextExecutor, Future<E>> workFunction, E baseResult,
+                ProcessingResult.ResultAccumulator<E> resultAccumulator, ProgressSnapshotReporter<E> onCompleteCallback) {
+        this.workSource = workSource;
+        this.workFunction = workFunction;
+        this.baseResult = baseResult;
+        this.resultAccumulator = resultAccumulator;
+        this.onCompleteCallback = onCompleteCallback;
+    }
+
+    public static <T, E> Job<T, E> create(WorkSource<T> workSource, BiFunction<T, ExecutionContextExecutor, Future<E>> workFunction, E baseResult,
+                                          ProcessingResult.ResultAccumulator<E> resultAccumulator, ProgressSnapshotReporter<E> onCompleteCallback) {
+        return new Job<>(Objects.requireNonNull(workSource, "workSource must not be null"),
+                Objects.requireNonNull(workFunction, "workFunction must not be null"),
+                Objects.requireNonNull(baseResult, "baseResult must not be null"),
+                Objects.requireNonNull(resultAccumulator, "resultAccumulator must not be null"),
+                Objects.requireNonNull(onCompleteCallback, "onCompleteCallback must not be null"));
+    }
+
+    public Job<T, E> withProgressReporting(ProgressSnapshotReporter<E> progressReportCallback, long everyItems) {
+        if (everyItems <= 0) {
+            throw new IllegalArgumentException("everyItems must be greater than zero");
+        }
+        Job<T, E> job = copy();
+        job.progressReportCallback = Objects.requireNonNull(progressReportCallback, "progressReportCallback must not be null");
+        job.progressReportEvery = everyItems;
+        return job;
+    }
+
+    public Job<T, E> withWeight(int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("weight must be greater than zero");
+        }
+        Job<T, E> job = copy();
+        job.weight = weight;
+        return job;
+    }
+
+    public Job<T, E> withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than zero");
+        }
+        Job<T, E> job = copy();
+        job.maxConcurrency = maxConcurrency;
+        return job;
+    }
+
+    public Job<T, E> withPrefetch(int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be greater than zero");
+        }
+        Job<T, E> job = copy();
+        job.prefetch = prefetch;
+        return job;
+    }
+
+    public WorkSource<T> getWorkSource() {
+        return workSource;
+    }
+
+    public BiFunction<T, ExecutionContextExecutor, Future<E>> getWorkFunction() {
+        return workFunction;
+    }
+
+    public E getBaseResult() {
+        return baseResult;
+    }
+
+    public ProcessingResult.ResultAccumulator<E> getResultAccumulator() {
+        return resultAccumulator;
+    }
+
+    public ProgressSnapshotReporter<E> getOnCompleteCallback() {
+        return onCompleteCallback;
+    }
+
+    public ProgressSnapshotReporter<E> getProgressReportCallback() {
+        return progressReportCallback;
+    }
+
+    public long getProgressReportEvery() {
+        return progressReportEvery;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Job<T, E> copy() {
+        try {
+            return (Job<T, E>) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
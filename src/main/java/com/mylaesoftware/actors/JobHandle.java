@@ -0,0 +1,69 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorRefFactory;
+import akka.actor.Props;
+import akka.actor.Terminated;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import static akka.japi.pf.ReceiveBuilder.match;
+
+public final class JobHandle<E> {
+
+    private final ActorRef dispatcher;
+    private final CompletableFuture<ProgressSnapshot<E>> completion;
+    private final CompletionStage<ProgressSnapshot<E>> result;
+
+    private JobHandle(ActorRef dispatcher, CompletableFuture<ProgressSnapshot<E>> completion) {
+        this.dispatcher = dispatcher;
+        this.completion = completion;
+        // a dependent stage, so callers cannot complete the job's own future through toCompletableFuture()
+        this.result = completion.thenApply(snapshot -> snapshot);
+    }
+
+    public static <E> JobHandle<E> start(ActorRefFactory actorRefFactory, Function<ProgressSnapshotReporter<E>, Props> dispatcherProps) {
+        Objects.requireNonNull(actorRefFactory, "actorRefFactory must not be null");
+        CompletableFuture<ProgressSnapshot<E>> completion = new CompletableFuture<>();
+        Props props = Objects.requireNonNull(dispatcherProps.apply(completion::complete), "dispatcherProps must not be null");
+        ActorRef dispatcher = actorRefFactory.actorOf(props);
+        actorRefFactory.actorOf(Props.create(DispatcherWatcher.class, () -> new DispatcherWatcher(dispatcher, completion)));
+        return new JobHandle<>(dispatcher, completion);
+    }
+
+    public CompletionStage<ProgressSnapshot<E>> result() {
+        return result;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    public CompletionStage<DispatcherMetrics> metrics(FiniteDuration timeout) {
+        return WorkDispatcher.metrics(dispatcher, timeout);
+    }
+
+    public void cancel() {
+        dispatcher.tell(new WorkDispatcher.CancelJob(), ActorRef.noSender());
+    }
+
+    public ActorRef getDispatcher() {
+        return dispatcher;
+    }
+
+    static class DispatcherWatcher extends AbstractActor {
+
+        DispatcherWatcher(ActorRef dispatcher, CompletableFuture<?> completion) {
+            context().watch(dispatcher);
+            receive(match(Terminated.class, message -> {
+                completion.completeExceptionally(new IllegalStateException("dispatcher " + dispatcher.path() + " terminated before completing the job"));
+                context().stop(self());
+            }).build());
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import akka.actor.SupervisorStrategy;
+import akka.actor.Terminated;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
+import akka.japi.Creator;
+import scala.concurrent.ExecutionContextExecutor;
+import scala.concurrent.Future;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+import static akka.japi.pf.ReceiveBuilder.match;
+
+@SuppressWarnings("unchecked")
+public class JobManager extends AbstractActor {
+
+    static final int MAX_REDISPATCHES = 3;
+
+    private final LoggingAdapter log = Logging.getLogger(context().system(), this);
+    private final Creator<Worker<JobWork, Object>> workerCreator;
+    private final Map<Long, JobState> jobs = new LinkedHashMap<>();
+    private final Map<ActorRef, Integer> workerCredits = new HashMap<>();
+    private final Deque<ActorRef> workersWithCredits = new ArrayDeque<>();
+    private final Map<Long, WorkItem<JobWork>> workInFlight = new HashMap<>();
+    private long nextJobId = 0L;
+    private long nextWorkId = 0L;
+    private double virtualTime = 0.0;
+
+    JobManager(int numberOfWorkers, int creditsPerWorker) {
+        this.workerCreator = workerCreator(creditsPerWorker);
+
+        receive(match(SubmitJob.class, message -> {
+            jobSubmitted(message.job);
+            dispatchWorkIfAvailable();
+        })
+                .match(WorkDispatcher.WorkDoneGetMore.class, message -> {
+                    workDone(message.workId, message.resultOfWorkDone, null);
+                    addCredits(sender(), message.credits);
+                    dispatchWorkIfAvailable();
+                })
+                .match(WorkDispatcher.WorkFailedGetMore.class, message -> {
+                    workDone(message.workId, null, message.failureOfWorkDone);
+                    addCredits(sender(), message.credits);
+                    dispatchWorkIfAvailable();
+                })
+                .match(WorkDispatcher.GetWork.class, message -> {
+                    addCredits(sender(), message.credits);
+                    dispatchWorkIfAvailable();
+                })
+                .match(JobItemsPulled.class, message -> {
+                    JobState job = jobs.get(message.jobId);
+                    if (job != null) {
+                        job.itemsPulled(message.items, message.failure);
+                        job.completeIfDone();
+                    }
+                    dispatchWorkIfAvailable();
+                })
+                .match(Terminated.class, message -> {
+                    workerTerminated(message.actor());
+                    dispatchWorkIfAvailable();
+                })
+                .build());
+
+        IntStream.range(0, numberOfWorkers).forEach(i -> spawnWorker());
+    }
+
+    private static Creator<Worker<JobWork, Object>> workerCreator(int creditsPerWorker) {
+        WorkerSettings settings = WorkerSettings.create().withCredits(creditsPerWorker);
+        return () -> new Worker<>(JobWork::process, settings);
+    }
+
+    @Override
+    public SupervisorStrategy supervisorStrategy() {
+        return WorkDispatcher.STOP_FAILED_WORKERS;
+    }
+
+    private void spawnWorker() {
+        context().watch(context().actorOf(Props.create(Worker.class, workerCreator::create)));
+    }
+
+    private void jobSubmitted(Job<?, ?> job) {
+        JobState state = new JobState(nextJobId++, (Job<Object, Object>) job);
+        jobs.put(state.jobId, state);
+        state.pullIfBelowLowWatermark();
+    }
+
+    private void addCredits(ActorRef worker, int credits) {
+        int previousCredits = workerCredits.getOrDefault(worker, 0);
+        if (previousCredits == 0 && credits > 0) {
+            workersWithCredits.addLast(worker);
+        }
+        workerCredits.put(worker, previousCredits + credits);
+    }
+
+    private void workDone(long workId, Object result, Throwable failure) {
+        WorkItem<JobWork> item = workInFlight.remove(workId);
+        if (item == null) {
+            return;
+        }
+        JobState job = jobs.get(item.work.jobId);
+        if (job == null) {
+            return;
+        }
+        job.inFlight--;
+        job.workDone(result, failure);
+        job.completeIfDone();
+    }
+
+    private void workerTerminated(ActorRef worker) {
+        workerCredits.remove(worker);
+        workersWithCredits.remove(worker);
+        Iterator<WorkItem<JobWork>> inFlight = workInFlight.values().iterator();
+        while (inFlight.hasNext()) {
+            WorkItem<JobWork> item = inFlight.next();
+            if (item.worker.equals(worker)) {
+                inFlight.remove();
+                JobState job = jobs.get(item.work.jobId);
+                if (job != null) {
+                    job.inFlight--;
+                    if (++item.work.redispatches > MAX_REDISPATCHES) {
+                        job.workDone(null, new WorkerLostException(item.workId, item.work.redispatches));
+                        job.completeIfDone();
+                    } else {
+                        job.redispatched.addFirst(item.work);
+                    }
+                }
+            }
+        }
+        spawnWorker();
+    }
+
+    private void dispatchWorkIfAvailable() {
+        while (!workersWithCredits.isEmpty()) {
+            JobState job = nextJobToServe();
+            if (job == null) {
+                break;
+            }
+            ActorRef worker = workersWithCredits.pollFirst();
+            dispatch(job, worker);
+            int credits = workerCredits.get(worker) - 1;
+            workerCredits.put(worker, credits);
+            if (credits > 0) {
+                workersWithCredits.addLast(worker);
+            }
+        }
+        jobs.values().forEach(JobState::pullIfBelowLowWatermark);
+    }
+
+    private JobState nextJobToServe() {
+        JobState next = null;
+        for (JobState job : jobs.values()) {
+            if (job.canDispatch() && (next == null || job.virtualFinishTime < next.virtualFinishTime)) {
+                next = job;
+            }
+        }
+        return next;
+    }
+
+    private void dispatch(JobState job, ActorRef worker) {
+        virtualTime = job.virtualFinishTime;
+        job.virtualFinishTime += 1.0 / job.job.getWeight();
+        job.inFlight++;
+        JobWork work = job.redispatched.isEmpty() ? new JobWork(job.jobId, job.buffered.pollFirst(), job.job.getWorkFunction()) : job.redispatched.pollFirst();
+        WorkItem<JobWork> item = new WorkItem<>(nextWorkId++, work);
+        item.worker = worker;
+        workInFlight.put(item.workId, item);
+        worker.tell(new Worker.Work<>(item.workId, item.work), self());
+    }
+
+    public static void submit(ActorRef jobManager, Job<?, ?> job) {
+        jobManager.tell(new SubmitJob(Objects.requireNonNull(job, "job must not be null")), ActorRef.noSender());
+    }
+
+    public static Props props(int numberOfWorkers) {
+        return props(numberOfWorkers, 1);
+    }
+
+    public static Props props(int numberOfWorkers, int creditsPerWorker) {
+        if (numberOfWorkers <= 0) {
+            throw new IllegalArgumentException("numberOfWorkers must be greater than zero");
+        }
+        if (creditsPerWorker <= 0) {
+            throw new IllegalArgumentException("creditsPerWorker must be greater than zero");
+        }
+
+        return Props.create(JobManager.class, () -> new JobManager(numberOfWorkers, creditsPerWorker));
+    }
+
+    static class SubmitJob {
+        final Job<?, ?> job;
+
+        SubmitJob(Job<?, ?> job) {
+            this.job = job;
+        }
+    }
+
+    static class JobItemsPulled {
+        final long jobId;
+        final List<Object> items;
+        final Throwable failure;
+
+        JobItemsPulled(long jobId, List<Object> items, Throwable failure) {
+            this.jobId = jobId;
+            this.items = items;
+            this.failure = failure;
+        }
+    }
+
+    static class JobWork {
+        final long jobId;
+        final Object item;
+        final BiFunction<Object, ExecutionContextExecutor, Future<Object>> workFunction;
+        int redispatches;
+
+        JobWork(long jobId, Object item, BiFunction<Object, ExecutionContextExecutor, Future<Object>> workFunction) {
+            this.jobId = jobId;
+            this.item = item;
+            this.workFunction = workFunction;
+        }
+
+        Future<Object> process(ExecutionContextExecutor executor) {
+            return workFunction.apply(item, executor);
+        }
+    }
+
+    private class JobState {
+        final long jobId;
+        final Job<Object, Object> job;
+        final ResultCollector<Object> processingResult;
+        final Deque<Object> buffered = new ArrayDeque<>();
+        final Deque<JobWork> redispatched = new ArrayDeque<>();
+        boolean pullPending;
+        boolean sourceExhausted;
+        int inFlight;
+        long itemsProcessed;
+        long itemsProcessedAtLastReport;
+        double virtualFinishTime = virtualTime;
+
+        JobState(long jobId, Job<Object, Object> job) {
+            this.jobId = jobId;
+            this.job = job;
+            this.processingResult = new ProcessingResult<>(job.getBaseResult(), job.getResultAccumulator());
+        }
+
+        boolean canDispatch() {
+            return (!buffered.isEmpty() || !redispatched.isEmpty()) && (job.getMaxConcurrency() == 0 || inFlight < job.getMaxConcurrency());
+        }
+
+        void pullIfBelowLowWatermark() {
+            if (pullPending || sourceExhausted || buffered.size() > job.getPrefetch() / 2) {
+                return;
+            }
+            pullPending = true;
+            ActorRef self = self();
+            try {
+                job.getWorkSource().pull(job.getPrefetch() - buffered.size())
+                        .whenComplete((items, failure) -> self.tell(new JobItemsPulled(jobId, items, failure), ActorRef.noSender()));
+            } catch (RuntimeException e) {
+                self.tell(new JobItemsPulled(jobId, null, e), ActorRef.noSender());
+            }
+        }
+
+        void itemsPulled(List<Object> items, Throwable failure) {
+            pullPending = false;
+            if (failure != null) {
+                processingResult.addFailure(failure);
+                sourceExhausted = true;
+            } else if (items == null || items.isEmpty()) {
+                sourceExhausted = true;
+            } else {
+                if (buffered.isEmpty()) {
+                    virtualFinishTime = Math.max(virtualFinishTime, virtualTime);
+                }
+                buffered.addAll(items);
+            }
+        }
+
+        void workDone(Object result, Throwable failure) {
+            try {
+                if (failure == null) {
+                    processingResult.addSuccess(result);
+                } else {
+                    processingResult.addFailure(failure);
+                }
+                itemsProcessed++;
+                if (job.getProgressReportCallback() != null && itemsProcessed - itemsProcessedAtLastReport >= job.getProgressReportEvery()) {
+                    itemsProcessedAtLastReport = itemsProcessed;
+                    job.getProgressReportCallback().reportProgress(snapshot(null));
+                }
+            } catch (RuntimeException e) {
+                callbackFailed(e);
+            }
+        }
+
+        void completeIfDone() {
+            if (jobs.containsKey(jobId) && sourceExhausted && !pullPending && buffered.isEmpty() && redispatched.isEmpty() && inFlight == 0) {
+                complete(TerminationReason.ALL_WORK_DONE);
+            }
+        }
+
+        private void callbackFailed(RuntimeException failure) {
+            log.error(failure, "job {} failed in a callback and will be stopped", jobId);
+            processingResult.addFailure(failure);
+            buffered.clear();
+            redispatched.clear();
+            sourceExhausted = true;
+            complete(TerminationReason.CALLBACK_FAILED);
+        }
+
+        private void complete(TerminationReason terminationReason) {
+            jobs.remove(jobId);
+            try {
+                job.getOnCompleteCallback().reportProgress(snapshot(terminationReason));
+            } catch (RuntimeException e) {
+                log.error(e, "onComplete callback of job {} failed", jobId);
+            }
+        }
+
+        ProgressSnapshot<Object> snapshot(TerminationReason terminationReason) {
+            ProgressSnapshot.Builder<Object> snapshot = ProgressSnapshot.builder(itemsProcessed, processingResult.getAccumulatedResult(), processingResult.getFailures())
+                    .terminationReason(terminationReason);
+            if (job.getMaxConcurrency() != 0) {
+                snapshot.concurrencyLimit(job.getMaxConcurrency(), null);
+            }
+            return snapshot.build();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ActorRef;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+class KeyAffinityRouter<T> {
+
+    private final Function<T, ?> keyExtractor;
+    private final Map<Object, ActorRef> keyOwners;
+    private final Map<ActorRef, Deque<WorkItem<T>>> ownedQueues = new HashMap<>();
+    private int queued = 0;
+    private long hits = 0L;
+    private long misses = 0L;
+
+    KeyAffinityRouter(Function<T, ?> keyExtractor, int maxKeys) {
+        this.keyExtractor = keyExtractor;
+        this.keyOwners = new LinkedHashMap<Object, ActorRef>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, ActorRef> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    WorkItem<T> next(ActorRef worker, Deque<WorkItem<T>> ready) {
+        Deque<WorkItem<T>> owned = ownedQueues.get(worker);
+        if (owned != null && !owned.isEmpty()) {
+            queued--;
+            return routed(worker, owned.pollFirst());
+        }
+        while (!ready.isEmpty()) {
+            WorkItem<T> item = ready.pollFirst();
+            ActorRef owner = keyOwners.get(keyExtractor.apply(item.work));
+            if (owner == null || owner.equals(worker)) {
+                return routed(worker, item);
+            }
+            ownedQueues.computeIfAbsent(owner, o -> new ArrayDeque<>()).addLast(item);
+            queued++;
+        }
+        Deque<WorkItem<T>> longest = null;
+        for (Deque<WorkItem<T>> candidate : ownedQueues.values()) {
+            if (longest == null || candidate.size() > longest.size()) {
+                longest = candidate;
+            }
+        }
+        if (longest == null || longest.isEmpty()) {
+            return null;
+        }
+        queued--;
+        return routed(worker, longest.pollFirst());
+    }
+
+    private WorkItem<T> routed(ActorRef worker, WorkItem<T> item) {
+        ActorRef previousOwner = keyOwners.put(keyExtractor.apply(item.work), worker);
+        if (worker.equals(previousOwner)) {
+            hits++;
+        } else if (previousOwner != null) {
+            misses++;
+        }
+        return item;
+    }
+
+    void workerTerminated(ActorRef worker, Deque<WorkItem<T>> ready) {
+        keyOwners.values().removeIf(worker::equals);
+        Deque<WorkItem<T>> owned = ownedQueues.remove(worker);
+        if (owned != null) {
+            queued -= owned.size();
+            owned.descendingIterator().forEachRemaining(ready::addFirst);
+        }
+    }
+
+    int size() {
+        return queued;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+}
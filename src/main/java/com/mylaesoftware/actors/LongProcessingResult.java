@@ -0,0 +1,49 @@
+package com.mylaesoftware.actors;
+
+
+import java.util.Objects;
+
+public class LongProcessingResult implements ResultCollector<Long> {
+
+    private final FailureCounter failures = new FailureCounter();
+    private final LongResultAccumulator resultAccumulator;
+    private long partialResult;
+
+    public LongProcessingResult(long baseResult, LongResultAccumulator resultAccumulator) {
+        this.partialResult = baseResult;
+        this.resultAccumulator = Objects.requireNonNull(resultAccumulator, "resultAccumulator must not be null");
+    }
+
+    @Override
+    public void addSuccess(Long successfulResult) {
+        addSuccess(successfulResult.longValue());
+    }
+
+    public void addSuccess(long successfulResult) {
+        partialResult = resultAccumulator.accumulate(partialResult, successfulResult);
+    }
+
+    @Override
+    public void restore(Long accumulatedResult) {
+        partialResult = accumulatedResult;
+    }
+
+    @Override
+    public Long getAccumulatedResult() {
+        return partialResult;
+    }
+
+    public long getAccumulatedLong() {
+        return partialResult;
+    }
+
+    @Override
+    public FailureCounter getFailureCounter() {
+        return failures;
+    }
+
+    @FunctionalInterface
+    public interface LongResultAccumulator {
+        long accumulate(long partialResult, long resultToAccumulate);
+    }
+}
@@ -0,0 +1,248 @@
+package com.mylaesoftware.actors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+public final class MappedRecordSource implements WorkSource<ByteBuffer>, Iterable<ByteBuffer> {
+
+    static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+    private static final int LENGTH_PREFIX_BYTES = Integer.BYTES;
+    private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private enum Framing {
+        NEWLINE_DELIMITED, LENGTH_PREFIXED
+    }
+
+    private final Path file;
+    private final Framing framing;
+    private final long start;
+    private final long end;
+    private final int windowSize;
+    private RecordIterator pulled;
+
+    private MappedRecordSource(Path file, Framing framing, long start, long end, int windowSize) {
+        this.file = file;
+        this.framing = framing;
+        this.start = start;
+        this.end = end;
+        this.windowSize = windowSize;
+    }
+
+    public static MappedRecordSource newlineDelimited(Path file) {
+        return newlineDelimited(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    public static MappedRecordSource lengthPrefixed(Path file) {
+        return lengthPrefixed(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    static MappedRecordSource newlineDelimited(Path file, int windowSize) {
+        return create(file, Framing.NEWLINE_DELIMITED, windowSize);
+    }
+
+    static MappedRecordSource lengthPrefixed(Path file, int windowSize) {
+        return create(file, Framing.LENGTH_PREFIXED, windowSize);
+    }
+
+    private static MappedRecordSource create(Path file, Framing framing, int windowSize) {
+        Objects.requireNonNull(file, "file must not be null");
+        if (windowSize <= LENGTH_PREFIX_BYTES) {
+            throw new IllegalArgumentException("windowSize must be greater than " + LENGTH_PREFIX_BYTES);
+        }
+        try {
+            return new MappedRecordSource(file, framing, 0L, Files.size(file), windowSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<MappedRecordSource> split(int numberOfRanges) {
+        if (numberOfRanges <= 0) {
+            throw new IllegalArgumentException("numberOfRanges must be greater than zero");
+        }
+        List<MappedRecordSource> ranges = new ArrayList<>(numberOfRanges);
+        RecordIterator boundaries = new RecordIterator();
+        long rangeStart = start;
+        for (int i = 1; i < numberOfRanges && rangeStart < end; i++) {
+            long rangeEnd = boundaries.recordBoundaryAtOrAfter(start + (end - start) * i / numberOfRanges);
+            if (rangeEnd > rangeStart) {
+                ranges.add(new MappedRecordSource(file, framing, rangeStart, rangeEnd, windowSize));
+                rangeStart = rangeEnd;
+            }
+        }
+        if (rangeStart < end || ranges.isEmpty()) {
+            ranges.add(new MappedRecordSource(file, framing, rangeStart, end, windowSize));
+        }
+        return ranges;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    @Override
+    public Iterator<ByteBuffer> iterator() {
+        return new RecordIterator();
+    }
+
+    @Override
+    public synchronized CompletionStage<List<ByteBuffer>> pull(int maxItems) {
+        if (pulled == null) {
+            pulled = new RecordIterator();
+        }
+        List<ByteBuffer> records = new ArrayList<>(maxItems);
+        try {
+            while (records.size() < maxItems && pulled.hasNext()) {
+                records.add(pulled.next());
+            }
+        } catch (RuntimeException e) {
+            CompletableFuture<List<ByteBuffer>> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return CompletableFuture.completedFuture(records);
+    }
+
+    private class RecordIterator implements Iterator<ByteBuffer> {
+
+        private long position = start;
+        private MappedByteBuffer window;
+        private ByteBuffer littleEndianWindow;
+        private long windowStart;
+        private ByteBuffer next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && position < end) {
+                next = framing == Framing.NEWLINE_DELIMITED ? nextLine() : nextLengthPrefixed();
+            }
+            return next != null;
+        }
+
+        @Override
+        public ByteBuffer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ByteBuffer record = next;
+            next = null;
+            return record;
+        }
+
+        private ByteBuffer nextLine() {
+            while (true) {
+                mapIfOutside(position, 1);
+                int from = (int) (position - windowStart);
+                int limit = window.limit();
+                int newline = indexOfNewline(from, limit);
+                if (newline >= 0) {
+                    position = windowStart + newline + 1;
+                    return slice(from, newline > from && window.get(newline - 1) == '\r' ? newline - 1 : newline);
+                }
+                if (windowStart + limit == end) {
+                    position = end;
+                    return slice(from, limit);
+                }
+                if (from == 0) {
+                    throw new IllegalStateException("record at offset " + position + " of " + file + " is larger than the mapping window");
+                }
+                window = null;
+            }
+        }
+
+        private ByteBuffer nextLengthPrefixed() {
+            mapIfOutside(position, LENGTH_PREFIX_BYTES);
+            int length = window.getInt((int) (position - windowStart));
+            if (length < 0) {
+                throw new IllegalStateException("negative record length at offset " + position + " of " + file);
+            }
+            mapIfOutside(position, LENGTH_PREFIX_BYTES + (long) length);
+            int from = (int) (position - windowStart) + LENGTH_PREFIX_BYTES;
+            position += LENGTH_PREFIX_BYTES + (long) length;
+            return slice(from, from + length);
+        }
+
+        private long recordBoundaryAtOrAfter(long offset) {
+            if (framing == Framing.LENGTH_PREFIXED) {
+                while (position < offset && hasNext()) {
+                    next = null;
+                }
+                return position;
+            }
+            position = Math.max(position, offset - 1);
+            while (position < end) {
+                mapIfOutside(position, 1);
+                int limit = window.limit();
+                int newline = indexOfNewline((int) (position - windowStart), limit);
+                if (newline >= 0) {
+                    position = windowStart + newline + 1;
+                    return position;
+                }
+                position = windowStart + limit;
+            }
+            return end;
+        }
+
+        private void mapIfOutside(long from, long length) {
+            if (window != null && from >= windowStart && from + length <= windowStart + window.limit()) {
+                return;
+            }
+            if (from + length > end) {
+                throw new IllegalStateException("truncated record at offset " + from + " of " + file);
+            }
+            if (length > windowSize) {
+                throw new IllegalStateException("record at offset " + from + " of " + file + " is larger than the mapping window");
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(windowSize, end - from));
+                littleEndianWindow = window.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                windowStart = from;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private int indexOfNewline(int from, int limit) {
+            int i = from;
+            for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+                long word = littleEndianWindow.getLong(i) ^ NEWLINES;
+                long newlines = (word - LOW_BITS) & ~word & HIGH_BITS;
+                if (newlines != 0L) {
+                    return i + (Long.numberOfTrailingZeros(newlines) >>> 3);
+                }
+            }
+            for (; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private ByteBuffer slice(int from, int to) {
+            ByteBuffer record = window.duplicate();
+            record.limit(to).position(from);
+            return record.slice();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.mylaesoftware.actors;
+
+@FunctionalInterface
+public interface MetricsExporter {
+
+    void export(DispatcherMetrics metrics);
+
+    default void close() {
+    }
+}
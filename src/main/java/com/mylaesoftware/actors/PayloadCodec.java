@@ -0,0 +1,12 @@
+package com.mylaesoftware.actors;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface PayloadCodec<P> {
+
+    void encode(P payload, DataOutput out) throws IOException;
+
+    P decode(DataInput in) throws IOException;
+}
@@ -1,36 +1,44 @@
 package com.mylaesoftware.actors;
 
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
-public class ProcessingResult<E> {
+public class ProcessingResult<E> implements ResultCollector<E> {
 
-    private final Map<Class<? extends Throwable>, Integer> failures;
-    private ResultAccumulator<E> resultAccumulator;
+    private final FailureCounter failures = new FailureCounter();
+    private final ResultAccumulator<E> resultAccumulator;
     private E partialResult;
 
     public ProcessingResult(E baseResult, ResultAccumulator<E> resultAccumulator) {
+        this(resultAccumulator);
         this.partialResult = Objects.requireNonNull(baseResult, "baseResult must not be null");
+    }
+
+    private ProcessingResult(ResultAccumulator<E> resultAccumulator) {
         this.resultAccumulator = Objects.requireNonNull(resultAccumulator, "resultAccumulator must not be null");
-        failures = new HashMap<>();
     }
 
+    static <E> ProcessingResult<E> withoutBaseResult(ResultAccumulator<E> resultAccumulator) {
+        return new ProcessingResult<>(resultAccumulator);
+    }
+
+    @Override
     public void addSuccess(E successfulResult) {
-        partialResult = resultAccumulator.accumulate(partialResult, successfulResult);
+        partialResult = partialResult == null ? successfulResult : resultAccumulator.accumulate(partialResult, successfulResult);
     }
 
-    public void addFailure(Throwable failure) {
-        Integer count = failures.getOrDefault(failure.getClass(), 0);
-        failures.put(failure.getClass(), ++count);
+    @Override
+    public void restore(E accumulatedResult) {
+        partialResult = accumulatedResult;
     }
 
+    @Override
     public E getAccumulatedResult() {
         return partialResult;
     }
 
-    public Map<Class<? extends Throwable>, Integer> getFailures() {
+    @Override
+    public FailureCounter getFailureCounter() {
         return failures;
     }
 
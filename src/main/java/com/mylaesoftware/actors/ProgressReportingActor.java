@@ -0,0 +1,35 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.AbstractActor;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
+
+import static akka.japi.pf.ReceiveBuilder.match;
+
+@SuppressWarnings("unchecked")
+class ProgressReportingActor<E> extends AbstractActor {
+
+    private final LoggingAdapter log = Logging.getLogger(context().system(), this);
+
+    ProgressReportingActor(ProgressSnapshotReporter<E> progressReportCallback, ProgressSnapshotReporter<E> onCompleteCallback) {
+        receive(match(ProgressSnapshot.class, snapshot -> report(progressReportCallback, (ProgressSnapshot<E>) snapshot))
+                .match(Completed.class, (Completed message) -> report(onCompleteCallback, (ProgressSnapshot<E>) message.snapshot))
+                .build());
+    }
+
+    private void report(ProgressSnapshotReporter<E> callback, ProgressSnapshot<E> snapshot) {
+        try {
+            callback.reportProgress(snapshot);
+        } catch (RuntimeException e) {
+            log.error(e, "progress callback failed for {}", snapshot);
+        }
+    }
+
+    static class Completed {
+        final ProgressSnapshot<?> snapshot;
+
+        Completed(ProgressSnapshot<?> snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mylaesoftware.actors;
+
+import java.util.Map;
+import java.util.Optional;
+
+public final class ProgressSnapshot<E> {
+
+    private final long itemsProcessed;
+    private final E accumulatedResult;
+    private final Map<Class<? extends Throwable>, Integer> failures;
+    private final int concurrencyLimit;
+    private final ScalingDecision lastScalingDecision;
+    private final long affinityHits;
+    private final long affinityMisses;
+    private final TerminationReason terminationReason;
+    private final long rateLimitWaitNanos;
+
+    private ProgressSnapshot(Builder<E> builder) {
+        this.itemsProcessed = builder.itemsProcessed;
+        this.accumulatedResult = builder.accumulatedResult;
+        this.failures = builder.failures;
+        this.concurrencyLimit = builder.concurrencyLimit;
+        this.lastScalingDecision = builder.lastScalingDecision;
+        this.affinityHits = builder.affinityHits;
+        this.affinityMisses = builder.affinityMisses;
+        this.terminationReason = builder.terminationReason;
+        this.rateLimitWaitNanos = builder.rateLimitWaitNanos;
+    }
+
+    static <E> Builder<E> builder(long itemsProcessed, E accumulatedResult, Map<Class<? extends Throwable>, Integer> failures) {
+        return new Builder<>(itemsProcessed, accumulatedResult, failures);
+    }
+
+    public long getItemsProcessed() {
+        return itemsProcessed;
+    }
+
+    public E getAccumulatedResult() {
+        return accumulatedResult;
+    }
+
+    public Map<Class<? extends Throwable>, Integer> getFailures() {
+        return failures;
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public Optional<ScalingDecision> getLastScalingDecision() {
+        return Optional.ofNullable(lastScalingDecision);
+    }
+
+    public long getAffinityHits() {
+        return affinityHits;
+    }
+
+    public long getAffinityMisses() {
+        return affinityMisses;
+    }
+
+    public Optional<TerminationReason> getTerminationReason() {
+        return Optional.ofNullable(terminationReason);
+    }
+
+    public long getRateLimitWaitNanos() {
+        return rateLimitWaitNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ProgressSnapshot{itemsProcessed=" + itemsProcessed + ", accumulatedResult=" + accumulatedResult + ", failures=" + failures
+                + ", concurrencyLimit=" + concurrencyLimit + ", lastScalingDecision=" + lastScalingDecision
+                + ", affinityHits=" + affinityHits + ", affinityMisses=" + affinityMisses + ", terminationReason=" + terminationReason
+                + ", rateLimitWaitNanos=" + rateLimitWaitNanos + "}";
+    }
+
+    static final class Builder<E> {
+        private final long itemsProcessed;
+        private final E accumulatedResult;
+        private final Map<Class<? extends Throwable>, Integer> failures;
+        private int concurrencyLimit = Integer.MAX_VALUE;
+        private ScalingDecision lastScalingDecision;
+        private long affinityHits;
+        private long affinityMisses;
+        private TerminationReason terminationReason;
+        private long rateLimitWaitNanos;
+
+        private Builder(long itemsProcessed, E accumulatedResult, Map<Class<? extends Throwable>, Integer> failures) {
+            this.itemsProcessed = itemsProcessed;
+            this.accumulatedResult = accumulatedResult;
+            this.failures = failures;
+        }
+
+        Builder<E> concurrencyLimit(int concurrencyLimit, ScalingDecision lastScalingDecision) {
+            this.concurrencyLimit = concurrencyLimit;
+            this.lastScalingDecision = lastScalingDecision;
+            return this;
+        }
+
+        Builder<E> affinity(long hits, long misses) {
+            this.affinityHits = hits;
+            this.affinityMisses = misses;
+            return this;
+        }
+
+        Builder<E> terminationReason(TerminationReason terminationReason) {
+            this.terminationReason = terminationReason;
+            return this;
+        }
+
+        Builder<E> rateLimitWaitNanos(long rateLimitWaitNanos) {
+            this.rateLimitWaitNanos = rateLimitWaitNanos;
+            return this;
+        }
+
+        ProgressSnapshot<E> build() {
+            return new ProgressSnapshot<>(this);
+        }
+    }
+}
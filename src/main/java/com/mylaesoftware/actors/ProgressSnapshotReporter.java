@@ -0,0 +1,11 @@
+package com.mylaesoftware.actors;
+
+@FunctionalInterface
+public interface ProgressSnapshotReporter<E> {
+
+    void reportProgress(ProgressSnapshot<E> snapshot);
+
+    static <E> ProgressSnapshotReporter<E> of(ProcessingResultProgressReporter<E> reporter) {
+        return snapshot -> reporter.reportProgress(snapshot.getItemsProcessed(), snapshot.getAccumulatedResult(), snapshot.getFailures());
+    }
+}
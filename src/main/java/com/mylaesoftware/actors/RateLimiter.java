@@ -0,0 +1,65 @@
+package com.mylaesoftware.actors;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+class RateLimiter<T> {
+
+    private final double itemsPerSecond;
+    private final int burst;
+    private final Function<T, ?> keyExtractor;
+    private final TokenBucket bucket;
+    private final Map<Object, TokenBucket> bucketsByKey;
+
+    RateLimiter(double itemsPerSecond, int burst, Function<T, ?> keyExtractor, int maxKeys) {
+        this.itemsPerSecond = itemsPerSecond;
+        this.burst = burst;
+        this.keyExtractor = keyExtractor;
+        this.bucket = keyExtractor == null ? new TokenBucket(itemsPerSecond, burst, System.nanoTime()) : null;
+        this.bucketsByKey = keyExtractor == null ? null : new LinkedHashMap<Object, TokenBucket>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, TokenBucket> eldest) {
+                // an evicted key that comes back starts with a full burst again, so maxKeys should cover the keys that are active at once
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    boolean isPerKey() {
+        return keyExtractor != null;
+    }
+
+    boolean hasToken(long now) {
+        return bucket.hasToken(now);
+    }
+
+    boolean tryAcquire(T work, long now) {
+        return bucketFor(work, now).tryAcquire(now);
+    }
+
+    WorkItem<T> pollAllowed(Deque<WorkItem<T>> queue, long now) {
+        Iterator<WorkItem<T>> items = queue.iterator();
+        while (items.hasNext()) {
+            WorkItem<T> item = items.next();
+            if (tryAcquire(item.work, now)) {
+                items.remove();
+                return item;
+            }
+        }
+        return null;
+    }
+
+    long nanosUntilToken(long now) {
+        return bucket == null ? (long) Math.ceil(1e9 / itemsPerSecond) : bucket.nanosUntilToken(now);
+    }
+
+    private TokenBucket bucketFor(T work, long now) {
+        if (bucket != null) {
+            return bucket;
+        }
+        return bucketsByKey.computeIfAbsent(keyExtractor.apply(work), key -> new TokenBucket(itemsPerSecond, burst, now));
+    }
+}
@@ -0,0 +1,44 @@
+package com.mylaesoftware.actors;
+
+import java.util.concurrent.TimeUnit;
+
+class RateMeter {
+
+    private static final long SLOT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long[] slots;
+    private final long startedAt;
+    private long currentSlot;
+
+    RateMeter(int windowSeconds, long now) {
+        this.slots = new long[windowSeconds];
+        this.startedAt = now;
+    }
+
+    void mark(long now, long events) {
+        advance(now);
+        slots[(int) (currentSlot % slots.length)] += events;
+    }
+
+    double ratePerSecond(long now) {
+        advance(now);
+        long events = 0L;
+        for (long slot : slots) {
+            events += slot;
+        }
+        long elapsed = now - startedAt;
+        long window = Math.min(elapsed, (slots.length - 1) * SLOT_NANOS + elapsed % SLOT_NANOS);
+        return window <= 0L ? 0.0 : events * 1e9 / window;
+    }
+
+    private void advance(long now) {
+        long slot = Math.max(0L, now - startedAt) / SLOT_NANOS;
+        if (slot <= currentSlot) {
+            return;
+        }
+        for (long cleared = Math.max(currentSlot + 1, slot - slots.length + 1); cleared <= slot; cleared++) {
+            slots[(int) (cleared % slots.length)] = 0L;
+        }
+        currentSlot = slot;
+    }
+}
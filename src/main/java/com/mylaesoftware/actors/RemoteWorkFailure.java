@@ -0,0 +1,15 @@
+package com.mylaesoftware.actors;
+
+public class RemoteWorkFailure extends RuntimeException {
+
+    private final String failureClassName;
+
+    public RemoteWorkFailure(String failureClassName, String message) {
+        super(failureClassName + (message == null ? "" : ": " + message), null, false, false);
+        this.failureClassName = failureClassName;
+    }
+
+    public String getFailureClassName() {
+        return failureClassName;
+    }
+}
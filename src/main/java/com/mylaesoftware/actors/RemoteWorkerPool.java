@@ -0,0 +1,96 @@
+package com.mylaesoftware.actors;
+
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorIdentity;
+import akka.actor.ActorRef;
+import akka.actor.ActorSelection;
+import akka.actor.Cancellable;
+import akka.actor.Identify;
+import akka.actor.Props;
+import akka.actor.SupervisorStrategy;
+import akka.actor.Terminated;
+import akka.japi.Creator;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static akka.japi.pf.ReceiveBuilder.match;
+
+
+public class RemoteWorkerPool<T, E> extends AbstractActor {
+
+    public static final String NAME = "remote-worker-pool";
+    public static final int DEFAULT_MAX_IDENTIFY_ATTEMPTS = 60;
+    private static final FiniteDuration IDENTIFY_INTERVAL = Duration.create(1, TimeUnit.SECONDS);
+    private final ActorSelection dispatcherSelection;
+    private final int numberOfWorkers;
+    private final int maxIdentifyAttempts;
+    private final Creator<Worker<T, E>> workerCreator;
+    private final Cancellable identifyTick;
+    private ActorRef dispatcher;
+    private int identifyAttempts = 0;
+
+    RemoteWorkerPool(String dispatcherPath, int numberOfWorkers, int maxIdentifyAttempts, Creator<Worker<T, E>> workerCreator) {
+        this.dispatcherSelection = context().actorSelection(dispatcherPath);
+        this.numberOfWorkers = numberOfWorkers;
+        this.maxIdentifyAttempts = maxIdentifyAttempts;
+        this.workerCreator = workerCreator;
+
+        receive(match(IdentifyDispatcher.class, message -> identifyAttempts >= maxIdentifyAttempts, message -> context().stop(self()))
+                .match(IdentifyDispatcher.class, message -> {
+                    identifyAttempts++;
+                    dispatcherSelection.tell(new Identify(dispatcherPath), self());
+                })
+                .match(ActorIdentity.class, message -> message.getRef() != null, message -> registerWith(message.getRef()))
+                .match(ActorIdentity.class, message -> {})
+                .build());
+
+        identifyTick = context().system().scheduler().schedule(Duration.Zero(), IDENTIFY_INTERVAL, self(), new IdentifyDispatcher(), context().dispatcher(), self());
+    }
+
+    private void registerWith(ActorRef dispatcher) {
+        this.dispatcher = dispatcher;
+        identifyTick.cancel();
+        context().watch(dispatcher);
+        IntStream.range(0, numberOfWorkers).forEach(i -> context().watch(context().actorOf(Props.create(Worker.class, workerCreator::create))));
+
+        context().become(match(WorkDispatcher.GetWork.class, message -> this.dispatcher.forward(message, context()))
+                .match(WorkDispatcher.PartialResult.class, message -> this.dispatcher.forward(message, context()))
+                .match(Terminated.class, message -> message.actor().equals(this.dispatcher) || context().children().isEmpty(),
+                        message -> context().stop(self()))
+                .match(Terminated.class, message -> {})
+                .build());
+    }
+
+    @Override
+    public SupervisorStrategy supervisorStrategy() {
+        return WorkDispatcher.STOP_FAILED_WORKERS;
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        identifyTick.cancel();
+    }
+
+    public static <T, E> Props props(String dispatcherPath, int numberOfWorkers, Creator<Worker<T, E>> workerCreator) {
+        return props(dispatcherPath, numberOfWorkers, DEFAULT_MAX_IDENTIFY_ATTEMPTS, workerCreator);
+    }
+
+    public static <T, E> Props props(String dispatcherPath, int numberOfWorkers, int maxIdentifyAttempts, Creator<Worker<T, E>> workerCreator) {
+        if (numberOfWorkers <= 0) {
+            throw new IllegalArgumentException("numberOfWorkers must be greater than zero");
+        }
+        if (maxIdentifyAttempts <= 0) {
+            throw new IllegalArgumentException("maxIdentifyAttempts must be greater than zero");
+        }
+
+        return Props.create(RemoteWorkerPool.class, Objects.requireNonNull(dispatcherPath, "dispatcherPath must not be null"), numberOfWorkers, maxIdentifyAttempts, workerCreator);
+    }
+
+    static class IdentifyDispatcher {
+    }
+}
@@ -0,0 +1,51 @@
+package com.mylaesoftware.actors;
+
+@SuppressWarnings("unchecked")
+class ReorderBuffer<T> {
+
+    private final WorkItem<T>[] slots;
+    private long nextSequence = 0L;
+    private long headSequence = 0L;
+
+    ReorderBuffer(int capacity) {
+        this.slots = (WorkItem<T>[]) new WorkItem<?>[capacity];
+    }
+
+    boolean hasCapacity() {
+        return nextSequence - headSequence < slots.length;
+    }
+
+    void sequence(WorkItem<T> item) {
+        if (item.sequence >= 0L) {
+            return;
+        }
+        item.sequence = nextSequence++;
+        slots[slot(item.sequence)] = item;
+    }
+
+    void completed(WorkItem<T> item, Object result, Throwable failure) {
+        item.result = result;
+        item.failure = failure;
+        item.completed = true;
+    }
+
+    WorkItem<T> pollCompleted() {
+        if (headSequence == nextSequence) {
+            return null;
+        }
+        WorkItem<T> head = slots[slot(headSequence)];
+        if (!head.completed) {
+            return null;
+        }
+        slots[slot(headSequence++)] = null;
+        return head;
+    }
+
+    int size() {
+        return (int) (nextSequence - headSequence);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % slots.length);
+    }
+}
@@ -0,0 +1,125 @@
+package com.mylaesoftware.actors;
+
+import akka.dispatch.ExecutionContexts;
+import akka.dispatch.Futures;
+import akka.dispatch.OnFailure;
+import scala.concurrent.ExecutionContextExecutor;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public final class ResultCache<T, E> {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final ExecutionContextExecutor CALLING_THREAD = ExecutionContexts.fromExecutor(Runnable::run);
+
+    private final Function<T, ?> keyExtractor;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private ResultCache(Function<T, ?> keyExtractor, int maxEntries, int numberOfSegments) {
+        this.keyExtractor = keyExtractor;
+        this.segments = new Segment[numberOfSegments];
+        int entriesPerSegment = Math.max(1, maxEntries / numberOfSegments);
+        for (int i = 0; i < numberOfSegments; i++) {
+            segments[i] = new Segment(entriesPerSegment, evictions);
+        }
+    }
+
+    public static <T, E> ResultCache<T, E> create(Function<T, ?> keyExtractor, int maxEntries) {
+        return create(keyExtractor, maxEntries, Math.min(DEFAULT_SEGMENTS, Math.max(1, maxEntries)));
+    }
+
+    public static <T, E> ResultCache<T, E> create(Function<T, ?> keyExtractor, int maxEntries, int numberOfSegments) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than zero");
+        }
+        if (numberOfSegments <= 0 || numberOfSegments > maxEntries) {
+            throw new IllegalArgumentException("numberOfSegments must be greater than zero and not greater than maxEntries");
+        }
+        return new ResultCache<>(Objects.requireNonNull(keyExtractor, "keyExtractor must not be null"), maxEntries, numberOfSegments);
+    }
+
+    @SuppressWarnings("unchecked")
+    Future<E> computeIfAbsent(T item, Supplier<Future<E>> work) {
+        Object key = keyExtractor.apply(item);
+        Segment segment = segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+        Promise<E> promise;
+        synchronized (segment) {
+            Future<E> cached = (Future<E>) segment.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            promise = Futures.promise();
+            segment.put(key, promise.future());
+        }
+        misses.increment();
+        Future<E> result = promise.future();
+        result.onFailure(new OnFailure() {
+            @Override
+            public void onFailure(Throwable failure) {
+                synchronized (segment) {
+                    segment.remove(key, result);
+                }
+            }
+        }, CALLING_THREAD);
+        try {
+            promise.completeWith(work.get());
+        } catch (RuntimeException e) {
+            promise.failure(e);
+            throw e;
+        }
+        return result;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static class Segment extends LinkedHashMap<Object, Future<?>> {
+        private final int maxEntries;
+        private final LongAdder evictions;
+
+        Segment(int maxEntries, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Future<?>> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
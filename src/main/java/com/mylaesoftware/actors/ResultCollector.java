@@ -0,0 +1,28 @@
+package com.mylaesoftware.actors;
+
+
+import java.util.Map;
+
+public interface ResultCollector<E> {
+
+    void addSuccess(E successfulResult);
+
+    default void addFailure(Throwable failure) {
+        getFailureCounter().increment(failure.getClass());
+    }
+
+    default void addPartialResult(E partialResult, ProcessingResult.ResultAccumulator<E> combiner) {
+        E accumulatedResult = getAccumulatedResult();
+        restore(accumulatedResult == null ? partialResult : combiner.accumulate(accumulatedResult, partialResult));
+    }
+
+    void restore(E accumulatedResult);
+
+    E getAccumulatedResult();
+
+    default Map<Class<? extends Throwable>, Integer> getFailures() {
+        return getFailureCounter().toMap();
+    }
+
+    FailureCounter getFailureCounter();
+}
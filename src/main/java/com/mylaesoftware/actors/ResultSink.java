@@ -0,0 +1,31 @@
+package com.mylaesoftware.actors;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+@FunctionalInterface
+public interface ResultSink<T, E> {
+
+    CompletionStage<Void> write(List<SinkRecord<T, E>> records);
+
+    default CompletionStage<Void> close() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    static <T, E> ResultSink<T, E> chunked(int chunkSize, ResultSink<T, E> downstream) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be greater than zero");
+        }
+        return new ChunkingResultSink<>(chunkSize, Objects.requireNonNull(downstream, "downstream must not be null"));
+    }
+
+    static <T, E> ResultSink<T, E> toFile(Path file, Function<SinkRecord<T, E>, String> formatter, Executor executor) {
+        return new FileResultSink<>(Objects.requireNonNull(file, "file must not be null"), Objects.requireNonNull(formatter, "formatter must not be null"),
+                Objects.requireNonNull(executor, "executor must not be null"));
+    }
+}
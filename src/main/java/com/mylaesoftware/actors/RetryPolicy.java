@@ -0,0 +1,74 @@
+package com.mylaesoftware.actors;
+
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+public final class RetryPolicy implements Cloneable {
+
+    private final int maxRetries;
+    private final FiniteDuration minBackoff;
+    private final FiniteDuration maxBackoff;
+    private double randomFactor = 0.2;
+    private Predicate<Throwable> retryOn = failure -> true;
+
+    private RetryPolicy(int maxRetries, FiniteDuration minBackoff, FiniteDuration maxBackoff) {
+        this.maxRetries = maxRetries;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public static RetryPolicy create(int maxRetries, FiniteDuration minBackoff, FiniteDuration maxBackoff) {
+        if (maxRetries <= 0) {
+            throw new IllegalArgumentException("maxRetries must be greater than zero");
+        }
+        if (minBackoff.toNanos() <= 0) {
+            throw new IllegalArgumentException("minBackoff must be greater than zero");
+        }
+        if (maxBackoff.lt(minBackoff)) {
+            throw new IllegalArgumentException("maxBackoff must not be less than minBackoff");
+        }
+        return new RetryPolicy(maxRetries, minBackoff, maxBackoff);
+    }
+
+    public RetryPolicy withRetryOn(Predicate<Throwable> retryOn) {
+        RetryPolicy policy = copy();
+        policy.retryOn = Objects.requireNonNull(retryOn, "retryOn must not be null");
+        return policy;
+    }
+
+    public RetryPolicy withRandomFactor(double randomFactor) {
+        if (randomFactor < 0) {
+            throw new IllegalArgumentException("randomFactor must not be negative");
+        }
+        RetryPolicy policy = copy();
+        policy.randomFactor = randomFactor;
+        return policy;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    boolean shouldRetry(Throwable failure, int retries) {
+        return retries < maxRetries && retryOn.test(failure);
+    }
+
+    FiniteDuration backoff(int retry) {
+        double exponential = minBackoff.toNanos() * Math.pow(2, Math.min(retry - 1, 30));
+        double jittered = Math.min(maxBackoff.toNanos(), exponential) * (1 + ThreadLocalRandom.current().nextDouble() * randomFactor);
+        return Duration.create((long) jittered, TimeUnit.NANOSECONDS);
+    }
+
+    private RetryPolicy copy() {
+        try {
+            return (RetryPolicy) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
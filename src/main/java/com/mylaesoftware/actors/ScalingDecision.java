@@ -0,0 +1,47 @@
+package com.mylaesoftware.actors;
+
+public final class ScalingDecision {
+
+    public enum Reason {
+        INCREASE_ON_SUCCESS, DECREASE_ON_FAILURE, DECREASE_ON_LATENCY
+    }
+
+    private final Reason reason;
+    private final int previousLimit;
+    private final int limit;
+    private final long latencyNanos;
+    private final long baselineLatencyNanos;
+
+    ScalingDecision(Reason reason, int previousLimit, int limit, long latencyNanos, long baselineLatencyNanos) {
+        this.reason = reason;
+        this.previousLimit = previousLimit;
+        this.limit = limit;
+        this.latencyNanos = latencyNanos;
+        this.baselineLatencyNanos = baselineLatencyNanos;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public int getPreviousLimit() {
+        return previousLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public long getBaselineLatencyNanos() {
+        return baselineLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ScalingDecision{" + reason + " " + previousLimit + " -> " + limit + ", latencyNanos=" + latencyNanos + ", baselineLatencyNanos=" + baselineLatencyNanos + "}";
+    }
+}
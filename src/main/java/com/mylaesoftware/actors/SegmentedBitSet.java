@@ -0,0 +1,41 @@
+package com.mylaesoftware.actors;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class SegmentedBitSet {
+
+    private static final int SEGMENT_BITS = 16;
+    private static final long OFFSET_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final Map<Long, long[]> segments = new HashMap<>();
+    private long lastSegmentIndex = -1L;
+    private long[] lastSegment;
+
+    void set(long index) {
+        long[] segment = segment(index);
+        if (segment == null) {
+            segment = new long[1 << (SEGMENT_BITS - 6)];
+            segments.put(index >>> SEGMENT_BITS, segment);
+            lastSegment = segment;
+        }
+        segment[(int) ((index & OFFSET_MASK) >>> 6)] |= 1L << index;
+    }
+
+    boolean get(long index) {
+        long[] segment = segment(index);
+        return segment != null && (segment[(int) ((index & OFFSET_MASK) >>> 6)] & (1L << index)) != 0L;
+    }
+
+    private long[] segment(long index) {
+        if (index < 0L) {
+            throw new IndexOutOfBoundsException("index must not be negative: " + index);
+        }
+        long segmentIndex = index >>> SEGMENT_BITS;
+        if (segmentIndex != lastSegmentIndex) {
+            lastSegmentIndex = segmentIndex;
+            lastSegment = segments.get(segmentIndex);
+        }
+        return lastSegment;
+    }
+}
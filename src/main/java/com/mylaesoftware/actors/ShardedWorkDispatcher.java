@@ -0,0 +1,161 @@
+package com.mylaesoftware.actors;
+
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import akka.japi.Creator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static akka.japi.pf.ReceiveBuilder.match;
+
+
+@SuppressWarnings("unchecked")
+public class ShardedWorkDispatcher<T, E> extends AbstractActor {
+
+    public static final String NAME = "sharded-work-dispatcher";
+    public static final int DEFAULT_PROGRESS_REPORT_EVERY = 1000;
+    private final ProcessingResultProgressReporter<E> onCompleteCallback;
+    private final ProcessingResultProgressReporter<E> progressReportCallback;
+    private final E baseResult;
+    private final ProcessingResult.ResultAccumulator<E> combiner;
+    private final List<ShardProgress> shards;
+    private int numberOfShardsCompleted = 0;
+
+    ShardedWorkDispatcher(List<Iterator<T>> partitions, int progressReportEvery, int workersPerShard, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProcessingResult.ResultAccumulator<E> combiner, ProcessingResultProgressReporter<E> progressReportCallback, ProcessingResultProgressReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        this.progressReportCallback = progressReportCallback;
+        this.onCompleteCallback = onCompleteCallback;
+        this.baseResult = baseResult;
+        this.combiner = combiner;
+        this.shards = partitions.stream().map(p -> new ShardProgress(0L, null, Collections.emptyMap(), false)).collect(Collectors.toList());
+
+        receive(match(ShardReport.class, message -> {
+            boolean alreadyCompleted = shards.get(message.shard).completed;
+            shards.set(message.shard, message.progress);
+            if (!message.progress.completed) {
+                reportCombined(progressReportCallback);
+            } else if (!alreadyCompleted && ++numberOfShardsCompleted == shards.size()) {
+                reportCombined(onCompleteCallback);
+                self().tell(PoisonPill.getInstance(), self());
+            }
+        }).build());
+
+        IntStream.range(0, partitions.size()).forEach(shard -> context().actorOf(
+                WorkDispatcher.props(WorkSource.fromIterator(partitions.get(shard)), workersPerShard, workerCreator, ProcessingResult.withoutBaseResult(resultAccumulator),
+                        ProgressSnapshotReporter.of(new ShardReporter<E>(self(), shard, progressReportEvery, false)),
+                        ProgressSnapshotReporter.of(new ShardReporter<E>(self(), shard, 1, true)), settings),
+                WorkDispatcher.NAME + "-" + shard));
+    }
+
+    private void reportCombined(ProcessingResultProgressReporter<E> reporter) {
+        long itemsProcessed = 0L;
+        E combinedResult = baseResult;
+        Map<Class<? extends Throwable>, Integer> combinedFailures = new HashMap<>();
+        for (ShardProgress shard : shards) {
+            itemsProcessed += shard.itemsProcessed;
+            if (shard.accumulatedResult != null) {
+                combinedResult = combiner.accumulate(combinedResult, (E) shard.accumulatedResult);
+            }
+            shard.failures.forEach((failure, count) -> combinedFailures.merge(failure, count, Integer::sum));
+        }
+        reporter.reportProgress(itemsProcessed, combinedResult, combinedFailures);
+    }
+
+    public static <T, E> Props props(Iterator<T> itemsToDispatch, int numberOfShards, int chunkSize, int workersPerShard, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProcessingResultProgressReporter<E> progressReportCallback, ProcessingResultProgressReporter<E> onCompleteCallback) {
+        return props(itemsToDispatch, numberOfShards, chunkSize, DEFAULT_PROGRESS_REPORT_EVERY, workersPerShard, workerCreator, baseResult, resultAccumulator, resultAccumulator, progressReportCallback, onCompleteCallback, WorkDispatcherSettings.create());
+    }
+
+    public static <T, E> Props props(Iterator<T> itemsToDispatch, int numberOfShards, int chunkSize, int progressReportEvery, int workersPerShard, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProcessingResult.ResultAccumulator<E> combiner, ProcessingResultProgressReporter<E> progressReportCallback, ProcessingResultProgressReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        if (!itemsToDispatch.hasNext()) {
+            throw new IllegalArgumentException("itemsToDispatch must not be empty");
+        }
+        if (numberOfShards <= 0) {
+            throw new IllegalArgumentException("numberOfShards must be greater than zero");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be greater than zero");
+        }
+        List<Iterator<T>> partitions = new ArrayList<>(numberOfShards);
+        IntStream.range(0, numberOfShards).forEach(i -> partitions.add(new ChunkedIterator<>(itemsToDispatch, chunkSize)));
+
+        return props(partitions, progressReportEvery, workersPerShard, workerCreator, baseResult, resultAccumulator, combiner, progressReportCallback, onCompleteCallback, settings);
+    }
+
+    public static <T, E> Props props(List<Iterator<T>> partitions, int progressReportEvery, int workersPerShard, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProcessingResult.ResultAccumulator<E> combiner, ProcessingResultProgressReporter<E> progressReportCallback, ProcessingResultProgressReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("partitions must not be empty");
+        }
+        if (progressReportEvery <= 0) {
+            throw new IllegalArgumentException("progressReportEvery must be greater than zero");
+        }
+        if (workersPerShard <= 0) {
+            throw new IllegalArgumentException("workersPerShard must be greater than zero");
+        }
+        if (Objects.requireNonNull(settings, "settings must not be null").getResultSink() != null) {
+            throw new IllegalArgumentException("resultSink is not supported by sharded dispatchers");
+        }
+        if (settings.getCheckpointFile() != null) {
+            throw new IllegalArgumentException("checkpoint is not supported by sharded dispatchers");
+        }
+
+        return Props.create(ShardedWorkDispatcher.class, partitions, progressReportEvery, workersPerShard, workerCreator, baseResult, resultAccumulator,
+                Objects.requireNonNull(combiner, "combiner must not be null"), progressReportCallback, onCompleteCallback, settings);
+    }
+
+    static class ShardReporter<E> implements ProcessingResultProgressReporter<E> {
+        private final ActorRef root;
+        private final int shard;
+        private final int reportEvery;
+        private final boolean completion;
+        private long lastReported = 0L;
+
+        ShardReporter(ActorRef root, int shard, int reportEvery, boolean completion) {
+            this.root = root;
+            this.shard = shard;
+            this.reportEvery = reportEvery;
+            this.completion = completion;
+        }
+
+        @Override
+        public void reportProgress(Long itemsProcessed, E accumulatedResult, Map<Class<? extends Throwable>, Integer> errors) {
+            if (completion || itemsProcessed - lastReported >= reportEvery) {
+                lastReported = itemsProcessed;
+                root.tell(new ShardReport(shard, new ShardProgress(itemsProcessed, accumulatedResult, new HashMap<>(errors), completion)), ActorRef.noSender());
+            }
+        }
+    }
+
+    static class ShardReport {
+        final int shard;
+        final ShardProgress progress;
+
+        ShardReport(int shard, ShardProgress progress) {
+            this.shard = shard;
+            this.progress = progress;
+        }
+    }
+
+    static class ShardProgress {
+        final long itemsProcessed;
+        final Object accumulatedResult;
+        final Map<Class<? extends Throwable>, Integer> failures;
+        final boolean completed;
+
+        ShardProgress(long itemsProcessed, Object accumulatedResult, Map<Class<? extends Throwable>, Integer> failures, boolean completed) {
+            this.itemsProcessed = itemsProcessed;
+            this.accumulatedResult = accumulatedResult;
+            this.failures = failures;
+            this.completed = completed;
+        }
+    }
+}
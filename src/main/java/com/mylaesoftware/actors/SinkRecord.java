@@ -0,0 +1,41 @@
+package com.mylaesoftware.actors;
+
+public final class SinkRecord<T, E> {
+
+    private final long workId;
+    private final T item;
+    private final E result;
+    private final Throwable failure;
+
+    SinkRecord(long workId, T item, E result, Throwable failure) {
+        this.workId = workId;
+        this.item = item;
+        this.result = result;
+        this.failure = failure;
+    }
+
+    public long getWorkId() {
+        return workId;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    public E getResult() {
+        return result;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return "SinkRecord{workId=" + workId + ", item=" + item + ", result=" + result + ", failure=" + failure + "}";
+    }
+}
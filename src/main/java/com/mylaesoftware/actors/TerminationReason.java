@@ -0,0 +1,5 @@
+package com.mylaesoftware.actors;
+
+public enum TerminationReason {
+    ALL_WORK_DONE, RESULT_CONDITION_MET, MAX_FAILURES_EXCEEDED, ITEM_LIMIT_REACHED, RESULT_SINK_FAILED, CANCELLED, INVALID_WORKER_SETTINGS, CALLBACK_FAILED
+}
@@ -0,0 +1,41 @@
+package com.mylaesoftware.actors;
+
+class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double tokensPerSecond, int burst, long now) {
+        this.tokensPerNano = tokensPerSecond / 1e9;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.refilledAt = now;
+    }
+
+    boolean hasToken(long now) {
+        refill(now);
+        return tokens >= 1.0;
+    }
+
+    boolean tryAcquire(long now) {
+        if (!hasToken(now)) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    long nanosUntilToken(long now) {
+        refill(now);
+        return tokens >= 1.0 ? 0L : (long) Math.ceil((1.0 - tokens) / tokensPerNano);
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
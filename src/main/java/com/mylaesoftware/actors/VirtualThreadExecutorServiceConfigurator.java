@@ -0,0 +1,53 @@
+package com.mylaesoftware.actors;
+
+import akka.dispatch.DispatcherPrerequisites;
+import akka.dispatch.ExecutorServiceConfigurator;
+import akka.dispatch.ExecutorServiceFactory;
+import com.typesafe.config.Config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+public class VirtualThreadExecutorServiceConfigurator extends ExecutorServiceConfigurator {
+
+    private final int fallbackPoolSize;
+
+    public VirtualThreadExecutorServiceConfigurator(Config config, DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+        this.fallbackPoolSize = config.getInt("virtual-thread-executor.fallback-pool-size");
+    }
+
+    @Override
+    public ExecutorServiceFactory createExecutorServiceFactory(String id, ThreadFactory threadFactory) {
+        return () -> {
+            ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+            return virtualThreads != null ? virtualThreads : Executors.newFixedThreadPool(fallbackPoolSize, threadFactory);
+        };
+    }
+
+    static boolean isVirtualThreadSupported() {
+        return virtualThreadFactoryMethod() != null;
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        Method factory = virtualThreadFactoryMethod();
+        if (factory == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static Method virtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -2,12 +2,37 @@ package com.mylaesoftware.actors;
 
 
 import akka.actor.AbstractActor;
+import akka.actor.ActorCell;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
+import akka.actor.OneForOneStrategy;
 import akka.actor.PoisonPill;
 import akka.actor.Props;
+import akka.actor.SupervisorStrategy;
+import akka.actor.Terminated;
 import akka.japi.Creator;
+import akka.japi.Pair;
+import akka.japi.pf.DeciderBuilder;
+import akka.pattern.PatternsCS;
+import akka.util.Timeout;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static akka.japi.pf.ReceiveBuilder.match;
@@ -17,58 +42,917 @@ import static akka.japi.pf.ReceiveBuilder.match;
 public class WorkDispatcher<T, E> extends AbstractActor {
 
     public static final String NAME = "work-dispatcher";
+    static final SupervisorStrategy STOP_FAILED_WORKERS = new OneForOneStrategy(DeciderBuilder.matchAny(failure -> SupervisorStrategy.stop()).build());
     private final int numberOfWorkers;
-    private final ProcessingResultProgressReporter<E> onCompleteCallback;
-    private final ProcessingResultProgressReporter<E> progressReportCallback;
-    private final Iterator<T> itemsToDispatch;
-    Long itemsProcessed = 0L;
-    private int numberOfWorkersWithNoMoreWork = 0;
-    final ProcessingResult<E> processingResult;
+    private final Creator<Worker<T, E>> workerCreator;
+    private final String workerDispatcher;
+    private final KeyAffinityRouter<T> affinityRouter;
+    private final CostAwareScheduler<T> costScheduler;
+    private final ReorderBuffer<T> reorderBuffer;
+    private final RateLimiter<T> rateLimiter;
+    private boolean rateLimited = false;
+    private long rateLimitedSince = 0L;
+    private long rateLimitWaitNanos = 0L;
+    private boolean tokenRefillScheduled = false;
+    private final ProgressSnapshotReporter<E> onCompleteCallback;
+    private final ProgressSnapshotReporter<E> progressReportCallback;
+    private final WorkSource<T> workSource;
+    private final int prefetch;
+    private final Deque<WorkItem<T>> prefetched = new ArrayDeque<>();
+    private boolean pullPending = false;
+    private boolean sourceExhausted = false;
+    long itemsProcessed = 0L;
+    final ResultCollector<E> processingResult;
+    private final BatchSizer batchSizer;
+    private final Map<ActorRef, WorkerState> workers = new HashMap<>();
+    private final Deque<ActorRef> workersWithCredits = new ArrayDeque<>();
+    private final Map<Long, WorkItem<T>> workInFlight = new HashMap<>();
+    private final Deque<WorkItem<T>> workToRedispatch = new ArrayDeque<>();
+    private long nextWorkId = 0L;
+    private final AimdConcurrencyLimiter concurrencyLimiter;
+    private final long progressReportEvery;
+    private long itemsProcessedAtLastReport = 0L;
+    private ActorRef progressReporter;
+    private Cancellable progressReportTick;
+    private final ResultSink<T, E> resultSink;
+    private final int maxBufferedResults;
+    private final boolean failuresToResultSink;
+    private List<SinkRecord<T, E>> pendingRecords = new ArrayList<>();
+    private int recordsBeingWritten = 0;
+    private Throwable resultSinkFailure;
+    private boolean closingResultSink = false;
+    private CheckpointLog<E> checkpointLog;
+    private SegmentedBitSet resumedWorkIds;
+    private long[] completedSinceCheckpoint;
+    private int numberCompletedSinceCheckpoint = 0;
+    private Cancellable checkpointTick;
+    private final RetryPolicy retryPolicy;
+    private int retriesPending = 0;
+    private final FiniteDuration itemTimeout;
+    private final long hedgeAfterNanos;
+    private Cancellable inFlightSweepTick;
+    private final ProcessingResult.ResultAccumulator<E> partialResultCombiner;
+    private final Predicate<E> stopWhen;
+    private final Map<Class<? extends Throwable>, Integer> maxFailures;
+    private final long itemLimit;
+    private final boolean cancelWorkInFlightOnTermination;
+    private long itemsProcessedAtLastTerminationCheck = 0L;
+    private TerminationReason terminationReason;
+    private final DispatcherMetricsRecorder metrics = new DispatcherMetricsRecorder(System.nanoTime());
+    private final MetricsExporter metricsExporter;
+    private Cancellable metricsExportTick;
 
     WorkDispatcher(Iterator<T> itemsToDispatch,  int numberOfWorkers, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProcessingResultProgressReporter<E> progressReportCallback, ProcessingResultProgressReporter<E> onCompleteCallback) {
-        this.itemsToDispatch = itemsToDispatch;
+        this(itemsToDispatch, numberOfWorkers, workerCreator, baseResult, resultAccumulator, progressReportCallback, onCompleteCallback, WorkDispatcherSettings.create());
+    }
+
+    WorkDispatcher(Iterator<T> itemsToDispatch,  int numberOfWorkers, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProcessingResultProgressReporter<E> progressReportCallback, ProcessingResultProgressReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        this(itemsToDispatch, numberOfWorkers, workerCreator, baseResult, resultAccumulator, ProgressSnapshotReporter.of(progressReportCallback), ProgressSnapshotReporter.of(onCompleteCallback), settings);
+    }
+
+    WorkDispatcher(Iterator<T> itemsToDispatch,  int numberOfWorkers, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProgressSnapshotReporter<E> progressReportCallback, ProgressSnapshotReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        this(itemsToDispatch, numberOfWorkers, workerCreator, new ProcessingResult<>(baseResult, resultAccumulator), progressReportCallback, onCompleteCallback, settings);
+    }
+
+    WorkDispatcher(Iterator<T> itemsToDispatch,  int numberOfWorkers, Creator<Worker<T, E>> workerCreator, ResultCollector<E> processingResult, ProgressSnapshotReporter<E> progressReportCallback, ProgressSnapshotReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        this(WorkSource.fromIterator(itemsToDispatch), numberOfWorkers, workerCreator, processingResult, progressReportCallback, onCompleteCallback, settings);
+    }
+
+    WorkDispatcher(WorkSource<T> workSource,  int numberOfWorkers, Creator<Worker<T, E>> workerCreator, ResultCollector<E> processingResult, ProgressSnapshotReporter<E> progressReportCallback, ProgressSnapshotReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        this.workSource = workSource;
+        this.costScheduler = settings.getCostEstimator() == null ? null
+                : new CostAwareScheduler<>((ToLongFunction<T>) settings.getCostEstimator(), settings.getCostLookahead(), settings.getMaxCostInFlightPerWorker());
+        this.rateLimiter = settings.isRateLimited() ? new RateLimiter<>(settings.getRateLimit(), settings.getRateLimitBurst(),
+                (Function<T, ?>) settings.getRateLimitKeyExtractor(), settings.getMaxRateLimitKeys()) : null;
+        this.reorderBuffer = settings.isOrderedResults() ? new ReorderBuffer<>(settings.getReorderBufferSize()) : null;
+        this.prefetch = costScheduler == null ? settings.getPrefetch() : Math.max(settings.getPrefetch(), 2 * costScheduler.getLookahead());
         this.numberOfWorkers = numberOfWorkers;
+        this.workerCreator = workerCreator;
+        this.workerDispatcher = settings.getWorkerDispatcher();
+        this.affinityRouter = settings.getAffinityKeyExtractor() == null ? null
+                : new KeyAffinityRouter<>((Function<T, ?>) settings.getAffinityKeyExtractor(), settings.getMaxAffinityKeys());
+        settings.validate();
+        this.retryPolicy = settings.getRetryPolicy();
+        this.partialResultCombiner = (ProcessingResult.ResultAccumulator<E>) settings.getPartialResultCombiner();
+        this.itemTimeout = settings.getItemTimeout();
+        this.stopWhen = (Predicate<E>) settings.getStopWhen();
+        this.maxFailures = settings.getMaxFailures();
+        this.itemLimit = settings.getItemLimit();
+        this.cancelWorkInFlightOnTermination = settings.isCancelWorkInFlightOnTermination();
+        this.hedgeAfterNanos = settings.getHedgeAfter() == null ? 0L : settings.getHedgeAfter().toNanos();
         this.progressReportCallback = progressReportCallback;
         this.onCompleteCallback = onCompleteCallback;
-        this.processingResult = new ProcessingResult<>(baseResult, resultAccumulator);
+        this.processingResult = processingResult;
+        this.batchSizer = new BatchSizer(settings);
+        this.progressReportEvery = settings.getProgressReportEvery();
+        this.concurrencyLimiter = settings.isAdaptiveConcurrency()
+                ? new AimdConcurrencyLimiter(settings.getMinConcurrency(), settings.getMaxConcurrency(), settings.getLatencyTolerance()) : null;
+        this.resultSink = (ResultSink<T, E>) settings.getResultSink();
+        this.maxBufferedResults = settings.getMaxBufferedResults();
+        this.failuresToResultSink = settings.isFailuresToResultSink();
+        this.metricsExporter = settings.getMetricsExporter();
 
         defineActorBehaviour();
 
+        if (settings.getCheckpointFile() != null && !CheckpointLog.closing(settings.getCheckpointFile()).isDone()) {
+            awaitCheckpointRelease(settings, workerCreator);
+        } else {
+            start(settings, workerCreator);
+        }
+    }
+
+    private void start(WorkDispatcherSettings settings, Creator<Worker<T, E>> workerCreator) {
+        setUpCheckpointing(settings);
+
+        setUpProgressReporting(settings);
+
+        setUpInFlightSweep();
+
+        setUpMetricsExport(settings);
+
         spawnChildren(workerCreator);
+
+        pullIfBelowLowWatermark();
+    }
+
+    private void awaitCheckpointRelease(WorkDispatcherSettings settings, Creator<Worker<T, E>> workerCreator) {
+        ActorRef self = self();
+        List<Pair<Object, ActorRef>> deferred = new ArrayList<>();
+        Cancellable closeTimeout = context().system().scheduler().scheduleOnce(Duration.create(CheckpointLog.CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                self, new CheckpointReleased(), context().dispatcher(), ActorRef.noSender());
+        CheckpointLog.closing(settings.getCheckpointFile()).whenComplete((closed, failure) -> self.tell(new CheckpointReleased(), ActorRef.noSender()));
+        context().become(match(CheckpointReleased.class, message -> {
+            closeTimeout.cancel();
+            context().unbecome();
+            start(settings, workerCreator);
+            deferred.forEach(pending -> self.tell(pending.first(), pending.second()));
+        })
+                .match(Object.class, message -> deferred.add(Pair.create(message, sender())))
+                .build());
     }
 
     private void defineActorBehaviour() {
         receive(match(WorkDoneGetMore.class, message -> {
-            processingResult.addSuccess((E) message.resultOfWorkDone);
-            progressReportCallback.reportProgress(++itemsProcessed, processingResult.getAccumulatedResult(), processingResult.getFailures());
-            dispatchWorkIfAvailable();
+            workSucceeded(message.workId, message.resultOfWorkDone, message.processingNanos);
+            workDone(message);
         })
+                .match(WorkAggregatedGetMore.class, message -> {
+                    workAggregated(sender(), message.workId, message.processingNanos);
+                    workDone(message);
+                })
                 .match(WorkFailedGetMore.class, message -> {
-                    processingResult.addFailure(message.failureOfWorkDone);
-                    progressReportCallback.reportProgress(++itemsProcessed, processingResult.getAccumulatedResult(), processingResult.getFailures());
+                    workFailed(message.workId, message.failureOfWorkDone, message.processingNanos);
+                    workDone(message);
+                })
+                .match(BatchDoneGetMore.class, message -> {
+                    for (int i = 0; i < message.size(); i++) {
+                        if (message.resultsOfWorkDone[i] != null) {
+                            workSucceeded(message.workIds[i], message.resultsOfWorkDone[i], message.processingNanos[i]);
+                        } else if (message.failuresOfWorkDone[i] != null) {
+                            workFailed(message.workIds[i], message.failuresOfWorkDone[i], message.processingNanos[i]);
+                        } else {
+                            workAggregated(sender(), message.workIds[i], message.processingNanos[i]);
+                        }
+                    }
+                    workDone(message);
+                })
+                .match(PartialResult.class, message -> {
+                    partialResultFlushed(sender(), (E) message.partialResult);
+                    reportProgressIfDue();
+                    dispatchWorkIfAvailable();
+                })
+                .match(GetWork.class, message -> {
+                    if (message.localAggregation && partialResultCombiner == null) {
+                        rejectWorkerSettings(sender());
+                    } else {
+                        addCredits(sender(), message.credits);
+                    }
+                    dispatchWorkIfAvailable();
+                })
+                .match(Terminated.class, message -> {
+                    workerTerminated(message.actor());
+                    dispatchWorkIfAvailable();
+                })
+                .match(RetryWork.class, message -> {
+                    retriesPending--;
+                    workToRedispatch.addLast((WorkItem<T>) message.item);
+                    dispatchWorkIfAvailable();
+                })
+                .match(ItemsPulled.class, message -> {
+                    itemsPulled((ItemsPulled<T>) message);
                     dispatchWorkIfAvailable();
                 })
-                .match(GetWork.class, message -> dispatchWorkIfAvailable())
+                .match(ResultsWritten.class, message -> {
+                    resultsWritten(message.failure);
+                    dispatchWorkIfAvailable();
+                })
+                .match(ResultSinkClosed.class, message -> {
+                    if (message.failure != null) {
+                        processingResult.addFailure(message.failure);
+                    }
+                    complete();
+                })
+                .match(CancelJob.class, message -> {
+                    terminate(terminationReason == null ? TerminationReason.CANCELLED : terminationReason, true);
+                    dispatchWorkIfAvailable();
+                })
+                .match(TokensRefilled.class, message -> {
+                    tokenRefillScheduled = false;
+                    dispatchWorkIfAvailable();
+                })
+                .match(GetMetrics.class, message -> sender().tell(metrics(), self()))
+                .match(ExportMetrics.class, message -> metricsExporter.export(metrics()))
+                .match(WriteCheckpoint.class, message -> writeCheckpoint())
+                .match(SweepInFlight.class, message -> {
+                    expireOverdueWork();
+                    dispatchWorkIfAvailable();
+                })
+                .match(ReportProgress.class, message -> {
+                    if (itemsProcessed > itemsProcessedAtLastReport) {
+                        reportProgress();
+                    }
+                })
                 .build());
     }
 
-    private void dispatchWorkIfAvailable() {
-        if (this.itemsToDispatch.hasNext()) {
-            sender().tell(new Worker.Work(itemsToDispatch.next()), self());
+    private void setUpCheckpointing(WorkDispatcherSettings settings) {
+        if (settings.getCheckpointFile() == null) {
+            return;
+        }
+        checkpointLog = new CheckpointLog<>(settings.getCheckpointFile(), (PayloadCodec<E>) settings.getCheckpointCodec(), settings.getCheckpointSyncInterval().toNanos());
+        completedSinceCheckpoint = new long[settings.getCheckpointEvery()];
+        CheckpointLog.Checkpoint<E> checkpoint = checkpointLog.getRestored();
+        if (checkpoint != null) {
+            resumedWorkIds = checkpoint.completedWorkIds;
+            itemsProcessed = checkpoint.itemsProcessed;
+            itemsProcessedAtLastReport = itemsProcessed;
+            processingResult.restore(checkpoint.accumulatedResult);
+            checkpoint.failures.forEach(processingResult.getFailureCounter()::add);
+        }
+        checkpointTick = context().system().scheduler().schedule(settings.getCheckpointSyncInterval(), settings.getCheckpointSyncInterval(),
+                self(), new WriteCheckpoint(), context().dispatcher(), self());
+    }
+
+    private void checkpointed(long workId) {
+        if (checkpointLog == null) {
+            return;
+        }
+        completedSinceCheckpoint[numberCompletedSinceCheckpoint++] = workId;
+        if (numberCompletedSinceCheckpoint == completedSinceCheckpoint.length) {
+            writeCheckpoint();
+        }
+    }
+
+    private void writeCheckpoint() {
+        if (checkpointLog == null || numberCompletedSinceCheckpoint == 0) {
+            return;
+        }
+        checkpointLog.append(completedSinceCheckpoint, numberCompletedSinceCheckpoint, itemsProcessed,
+                processingResult.getAccumulatedResult(), processingResult.getFailures());
+        numberCompletedSinceCheckpoint = 0;
+    }
+
+    private void setUpInFlightSweep() {
+        long sweepIntervalNanos = Math.min(itemTimeout == null ? Long.MAX_VALUE : itemTimeout.toNanos(), hedgeAfterNanos == 0L ? Long.MAX_VALUE : hedgeAfterNanos) / 2;
+        if (sweepIntervalNanos == Long.MAX_VALUE / 2) {
+            return;
+        }
+        FiniteDuration sweepInterval = Duration.create(Math.max(sweepIntervalNanos, TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+        inFlightSweepTick = context().system().scheduler().schedule(sweepInterval, sweepInterval, self(), new SweepInFlight(), context().dispatcher(), self());
+    }
+
+    private void setUpMetricsExport(WorkDispatcherSettings settings) {
+        if (metricsExporter == null) {
+            return;
+        }
+        metricsExportTick = context().system().scheduler().schedule(settings.getMetricsExportInterval(), settings.getMetricsExportInterval(),
+                self(), new ExportMetrics(), context().dispatcher(), self());
+    }
+
+    private DispatcherMetrics metrics() {
+        int idleWorkers = 0;
+        for (WorkerState state : workers.values()) {
+            if (state.inFlight == 0) {
+                idleWorkers++;
+            }
+        }
+        return metrics.snapshot(itemsProcessed, workInFlight.size(), workers.size(), idleWorkers, mailboxDepth(), System.nanoTime());
+    }
+
+    private int mailboxDepth() {
+        return context() instanceof ActorCell ? ((ActorCell) context()).mailbox().numberOfMessages() : -1;
+    }
+
+    private void expireOverdueWork() {
+        if (itemTimeout == null) {
+            return;
+        }
+        long overdueBefore = System.nanoTime() - itemTimeout.toNanos();
+        List<WorkItem<T>> overdue = workInFlight.values().stream().filter(item -> item.dispatchedAt <= overdueBefore).collect(Collectors.toList());
+        overdue.forEach(item -> {
+            workFailed(item.workId, new WorkTimeoutException(item.workId, itemTimeout), -1L);
+            releaseOverdueWorker(item.worker);
+            releaseOverdueWorker(item.hedgeWorker);
+        });
+    }
+
+    private void releaseOverdueWorker(ActorRef worker) {
+        if (worker == null || !workers.containsKey(worker)) {
+            return;
+        }
+        if (worker.path().parent().equals(self().path())) {
+            context().stop(worker);
+        } else {
+            addCredits(worker, 1);
+        }
+    }
+
+    private void hedgeStragglers() {
+        if (hedgeAfterNanos == 0L || !sourceExhausted || pullPending || hasWorkToDispatch() || workersWithCredits.isEmpty()) {
+            return;
+        }
+        if (terminationReason != null) {
+            return;
+        }
+        long hedgeBefore = System.nanoTime() - hedgeAfterNanos;
+        List<WorkItem<T>> stragglers = workInFlight.values().stream().filter(item -> item.hedgeWorker == null && item.dispatchedAt <= hedgeBefore)
+                .sorted(Comparator.comparingLong(item -> item.dispatchedAt)).collect(Collectors.toList());
+        for (WorkItem<T> item : stragglers) {
+            ActorRef worker = workersWithCredits.stream().filter(candidate -> !candidate.equals(item.worker))
+                    .filter(candidate -> costScheduler == null || costScheduler.fits(workers.get(candidate).costInFlight, item)).findFirst().orElse(null);
+            if (worker == null || (rateLimiter != null && !rateLimiter.tryAcquire(item.work, System.nanoTime()))) {
+                return;
+            }
+            WorkerState state = workers.get(worker);
+            workersWithCredits.remove(worker);
+            if (--state.credits > 0) {
+                workersWithCredits.addLast(worker);
+            }
+            state.costInFlight += item.cost;
+            state.inFlight++;
+            item.hedgeWorker = worker;
+            worker.tell(new Worker.Work<>(item.workId, item.work), self());
+        }
+    }
+
+    private void setUpProgressReporting(WorkDispatcherSettings settings) {
+        if (settings.getProgressReportDispatcher() != null) {
+            progressReporter = context().actorOf(Props.create(ProgressReportingActor.class, progressReportCallback, onCompleteCallback)
+                    .withDispatcher(settings.getProgressReportDispatcher()), "progress-reporter");
+        }
+        if (settings.getProgressReportInterval() != null) {
+            progressReportTick = context().system().scheduler().schedule(settings.getProgressReportInterval(), settings.getProgressReportInterval(),
+                    self(), new ReportProgress(), context().dispatcher(), self());
+        }
+    }
+
+    private void reportProgress() {
+        itemsProcessedAtLastReport = itemsProcessed;
+        ProgressSnapshot<E> snapshot = snapshot();
+        if (progressReporter != null) {
+            progressReporter.tell(snapshot, self());
+        } else {
+            progressReportCallback.reportProgress(snapshot);
+        }
+    }
+
+    private ProgressSnapshot<E> snapshot() {
+        ProgressSnapshot.Builder<E> snapshot = ProgressSnapshot.builder(itemsProcessed, processingResult.getAccumulatedResult(), processingResult.getFailures())
+                .terminationReason(terminationReason)
+                .rateLimitWaitNanos(rateLimitWaitNanos + (rateLimitedSince == 0L ? 0L : System.nanoTime() - rateLimitedSince));
+        if (concurrencyLimiter != null) {
+            snapshot.concurrencyLimit(concurrencyLimiter.getLimit(), concurrencyLimiter.getLastDecision());
+        }
+        if (affinityRouter != null) {
+            snapshot.affinity(affinityRouter.getHits(), affinityRouter.getMisses());
+        }
+        return snapshot.build();
+    }
+
+    @Override
+    public SupervisorStrategy supervisorStrategy() {
+        return STOP_FAILED_WORKERS;
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        if (progressReportTick != null) {
+            progressReportTick.cancel();
+        }
+        if (checkpointTick != null) {
+            checkpointTick.cancel();
+        }
+        if (inFlightSweepTick != null) {
+            inFlightSweepTick.cancel();
+        }
+        if (metricsExportTick != null) {
+            metricsExportTick.cancel();
+        }
+        if (metricsExporter != null) {
+            metricsExporter.close();
+        }
+        if (checkpointLog != null) {
+            writeCheckpoint();
+            checkpointLog.close();
+        }
+    }
+
+    private void workSucceeded(long workId, Object result, long processingNanos) {
+        WorkItem<T> item = removeInFlight(workId);
+        if (item == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        attemptCompleted(item, processingNanos, now);
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.onSuccess(now - item.dispatchedAt, workInFlight.size() + 1, now);
+        }
+        if (reorderBuffer != null) {
+            reorderBuffer.completed(item, result, null);
+            releaseInOrder();
+        } else {
+            succeeded(item, (E) result);
+        }
+    }
+
+    private void succeeded(WorkItem<T> item, E result) {
+        processingResult.addSuccess(result);
+        itemsProcessed++;
+        metrics.itemsProcessed(1L, System.nanoTime());
+        checkpointed(item.workId);
+        if (resultSink != null) {
+            pendingRecords.add(new SinkRecord<>(item.workId, item.work, result, null));
+        }
+    }
+
+    private void releaseInOrder() {
+        WorkItem<T> item;
+        while ((item = reorderBuffer.pollCompleted()) != null) {
+            if (item.failure == null) {
+                succeeded(item, (E) item.result);
+            } else {
+                failed(item, item.failure);
+            }
+        }
+    }
+
+    private void workAggregated(ActorRef worker, long workId, long processingNanos) {
+        WorkItem<T> item = removeInFlight(workId);
+        if (item == null) {
+            return;
+        }
+        workers.get(worker).unflushed.add(item);
+        long now = System.nanoTime();
+        attemptCompleted(item, processingNanos, now);
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.onSuccess(now - item.dispatchedAt, workInFlight.size() + 1, now);
+        }
+    }
+
+    private void attemptCompleted(WorkItem<T> item, long processingNanos, long now) {
+        metrics.attemptCompleted(now - item.dispatchedAt, processingNanos);
+        batchSizer.recordItem(processingNanos);
+    }
+
+    private void rejectWorkerSettings(ActorRef worker) {
+        if (terminationReason != null) {
+            return;
+        }
+        processingResult.addFailure(new IllegalStateException("worker " + worker.path() + " aggregates results locally but the dispatcher is not configured withLocalAggregation"));
+        terminate(TerminationReason.INVALID_WORKER_SETTINGS, true);
+    }
+
+    private void partialResultFlushed(ActorRef worker, E partialResult) {
+        WorkerState state = workers.get(worker);
+        if (state == null || partialResultCombiner == null) {
+            return;
+        }
+        processingResult.addPartialResult(partialResult, partialResultCombiner);
+        itemsProcessed += state.unflushed.size();
+        metrics.itemsProcessed(state.unflushed.size(), System.nanoTime());
+        state.unflushed.clear();
+        state.flushRequested = false;
+    }
+
+    private void workFailed(long workId, Throwable failure, long processingNanos) {
+        WorkItem<T> item = removeInFlight(workId);
+        if (item == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        attemptCompleted(item, processingNanos, now);
+        metrics.attemptFailed(failure.getClass(), now);
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.onFailure(now - item.dispatchedAt, now);
+        }
+        if (retryPolicy != null && retryPolicy.shouldRetry(failure, item.retries)) {
+            item.retries++;
+            retriesPending++;
+            context().system().scheduler().scheduleOnce(retryPolicy.backoff(item.retries), self(), new RetryWork(item), context().dispatcher(), self());
+            return;
+        }
+        if (reorderBuffer != null) {
+            reorderBuffer.completed(item, null, failure);
+            releaseInOrder();
+        } else {
+            failed(item, failure);
+        }
+    }
+
+    private void failed(WorkItem<T> item, Throwable failure) {
+        processingResult.addFailure(failure);
+        itemsProcessed++;
+        metrics.itemsProcessed(1L, System.nanoTime());
+        checkpointed(item.workId);
+        if (resultSink != null && failuresToResultSink) {
+            pendingRecords.add(new SinkRecord<>(item.workId, item.work, null, failure));
+        }
+    }
+
+    private WorkItem<T> removeInFlight(long workId) {
+        WorkItem<T> item = workInFlight.remove(workId);
+        if (item != null) {
+            releaseFrom(item.worker, item);
+            if (item.hedgeWorker != null) {
+                releaseFrom(item.hedgeWorker, item);
+            }
+        }
+        return item;
+    }
+
+    private void releaseFrom(ActorRef worker, WorkItem<T> item) {
+        WorkerState state = workers.get(worker);
+        if (state != null) {
+            state.costInFlight -= item.cost;
+            state.inFlight--;
+        }
+    }
+
+    private boolean belowConcurrencyLimit() {
+        return concurrencyLimiter == null || workInFlight.size() < concurrencyLimiter.getLimit();
+    }
+
+    private boolean belowResultSinkBacklog() {
+        return resultSink == null || pendingRecords.size() + recordsBeingWritten + workInFlight.size() < maxBufferedResults;
+    }
+
+    private boolean belowItemLimit() {
+        return itemLimit == 0L || itemsProcessed + workInFlight.size() < itemLimit;
+    }
+
+    private boolean canDispatch() {
+        return terminationReason == null && resultSinkFailure == null && belowConcurrencyLimit() && belowResultSinkBacklog() && belowItemLimit() && belowRateLimit();
+    }
+
+    private boolean belowRateLimit() {
+        if (rateLimiter == null || rateLimiter.isPerKey() || rateLimiter.hasToken(System.nanoTime())) {
+            return true;
+        }
+        rateLimited = true;
+        return false;
+    }
+
+    private void awaitTokensIfRateLimited() {
+        long now = System.nanoTime();
+        if (!rateLimited) {
+            if (rateLimitedSince != 0L) {
+                rateLimitWaitNanos += now - rateLimitedSince;
+                rateLimitedSince = 0L;
+            }
+            return;
+        }
+        if (rateLimitedSince == 0L) {
+            rateLimitedSince = now;
+        }
+        if (!tokenRefillScheduled) {
+            tokenRefillScheduled = true;
+            context().system().scheduler().scheduleOnce(Duration.create(Math.max(rateLimiter.nanosUntilToken(now), 1L), TimeUnit.NANOSECONDS),
+                    self(), new TokensRefilled(), context().dispatcher(), self());
+        }
+    }
+
+    private void checkTerminationConditions() {
+        if (terminationReason != null || itemsProcessed == itemsProcessedAtLastTerminationCheck) {
+            return;
+        }
+        itemsProcessedAtLastTerminationCheck = itemsProcessed;
+        if (itemLimit > 0L && itemsProcessed >= itemLimit) {
+            terminate(TerminationReason.ITEM_LIMIT_REACHED, cancelWorkInFlightOnTermination);
+        } else if (maxFailuresExceeded()) {
+            terminate(TerminationReason.MAX_FAILURES_EXCEEDED, cancelWorkInFlightOnTermination);
+        } else if (stopWhen != null && stopWhen.test(processingResult.getAccumulatedResult())) {
+            terminate(TerminationReason.RESULT_CONDITION_MET, cancelWorkInFlightOnTermination);
+        }
+    }
+
+    private boolean maxFailuresExceeded() {
+        for (Map.Entry<Class<? extends Throwable>, Integer> maxFailure : maxFailures.entrySet()) {
+            if (processingResult.getFailureCounter().get(maxFailure.getKey()) > maxFailure.getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void terminate(TerminationReason reason, boolean cancelWorkInFlight) {
+        terminationReason = reason;
+        if (cancelWorkInFlight) {
+            workInFlight.clear();
+            workers.values().forEach(state -> {
+                state.unflushed.clear();
+                state.costInFlight = 0L;
+                state.inFlight = 0;
+            });
+        }
+    }
+
+    private void writeResultsIfIdle() {
+        if (resultSink == null || recordsBeingWritten > 0 || pendingRecords.isEmpty()) {
+            return;
+        }
+        if (resultSinkFailure != null) {
+            pendingRecords.clear();
+            return;
+        }
+        List<SinkRecord<T, E>> records = pendingRecords;
+        pendingRecords = new ArrayList<>();
+        recordsBeingWritten = records.size();
+        ActorRef self = self();
+        try {
+            resultSink.write(records).whenComplete((done, failure) -> self.tell(new ResultsWritten(failure), ActorRef.noSender()));
+        } catch (RuntimeException e) {
+            self.tell(new ResultsWritten(e), ActorRef.noSender());
+        }
+    }
+
+    private void resultsWritten(Throwable failure) {
+        recordsBeingWritten = 0;
+        if (failure != null && resultSinkFailure == null) {
+            resultSinkFailure = failure;
+            processingResult.addFailure(failure);
+        }
+    }
+
+    private void workDone(GetWork message) {
+        reportProgressIfDue();
+        addCredits(sender(), message.credits);
+        dispatchWorkIfAvailable();
+    }
+
+    private void reportProgressIfDue() {
+        if (progressReportEvery > 0 && itemsProcessed - itemsProcessedAtLastReport >= progressReportEvery) {
+            reportProgress();
+        }
+    }
+
+    private void addCredits(ActorRef worker, int credits) {
+        WorkerState state = workers.get(worker);
+        if (state == null) {
+            state = new WorkerState();
+            workers.put(worker, state);
+            context().watch(worker);
+        }
+        if (state.credits == 0 && credits > 0) {
+            workersWithCredits.addLast(worker);
+        }
+        state.credits += credits;
+    }
+
+    private void workerTerminated(ActorRef worker) {
+        WorkerState state = workers.remove(worker);
+        if (state == null) {
+            return;
+        }
+        workToRedispatch.addAll(state.unflushed);
+        if (affinityRouter != null) {
+            affinityRouter.workerTerminated(worker, prefetched);
+        }
+        if (worker.path().parent().equals(self().path())) {
+            spawnWorker(workerCreator);
+        }
+        workersWithCredits.remove(worker);
+        Iterator<WorkItem<T>> inFlight = workInFlight.values().iterator();
+        while (inFlight.hasNext()) {
+            WorkItem<T> item = inFlight.next();
+            if (worker.equals(item.hedgeWorker)) {
+                item.hedgeWorker = null;
+            } else if (item.worker.equals(worker) && item.hedgeWorker != null) {
+                item.worker = item.hedgeWorker;
+                item.hedgeWorker = null;
+            } else if (item.worker.equals(worker)) {
+                inFlight.remove();
+                workToRedispatch.addLast(item);
+            }
+        }
+    }
+
+    private void pullIfBelowLowWatermark() {
+        int buffered = prefetched.size() + (affinityRouter == null ? 0 : affinityRouter.size()) + (costScheduler == null ? 0 : costScheduler.size());
+        if (pullPending || sourceExhausted || terminationReason != null || buffered > prefetch / 2) {
+            return;
+        }
+        pullPending = true;
+        ActorRef self = self();
+        try {
+            workSource.pull(prefetch - buffered)
+                    .whenComplete((items, failure) -> self.tell(new ItemsPulled<>(items, failure), ActorRef.noSender()));
+        } catch (RuntimeException e) {
+            self.tell(new ItemsPulled<>(null, e), ActorRef.noSender());
+        }
+    }
+
+    private void itemsPulled(ItemsPulled<T> message) {
+        pullPending = false;
+        if (message.failure != null) {
+            processingResult.addFailure(message.failure);
+            sourceExhausted = true;
+        } else if (message.items == null || message.items.isEmpty()) {
+            sourceExhausted = true;
         } else {
-            sender().tell(new Worker.NoMoreWork(), self());
-            if (++numberOfWorkersWithNoMoreWork >= this.numberOfWorkers) {
-                onCompleteCallback.reportProgress(itemsProcessed, processingResult.getAccumulatedResult(), processingResult.getFailures());
-                self().tell(PoisonPill.getInstance(), self());
+            for (T item : message.items) {
+                long workId = nextWorkId++;
+                if (resumedWorkIds == null || !resumedWorkIds.get(workId)) {
+                    WorkItem<T> workItem = new WorkItem<>(workId, item);
+                    if (costScheduler != null) {
+                        costScheduler.estimate(workItem);
+                    }
+                    prefetched.addLast(workItem);
+                }
+            }
+        }
+    }
+
+    private boolean hasWorkToDispatch() {
+        return !workToRedispatch.isEmpty() || !prefetched.isEmpty() || (affinityRouter != null && affinityRouter.size() > 0)
+                || (costScheduler != null && costScheduler.size() > 0);
+    }
+
+    private WorkItem<T> nextWorkItemFor(ActorRef worker) {
+        if (rateLimiter != null && rateLimiter.isPerKey()) {
+            long now = System.nanoTime();
+            WorkItem<T> item = rateLimiter.pollAllowed(workToRedispatch, now);
+            item = item == null ? rateLimiter.pollAllowed(prefetched, now) : item;
+            rateLimited |= item == null;
+            return item;
+        }
+        if (costScheduler != null) {
+            long costInFlight = workers.get(worker).costInFlight;
+            if (!workToRedispatch.isEmpty() && costScheduler.fits(costInFlight, workToRedispatch.peekFirst())) {
+                return workToRedispatch.pollFirst();
+            }
+            return costScheduler.next(costInFlight, prefetched);
+        }
+        if (!workToRedispatch.isEmpty()) {
+            return workToRedispatch.pollFirst();
+        }
+        if (reorderBuffer != null && !reorderBuffer.hasCapacity()) {
+            return null;
+        }
+        return affinityRouter == null ? prefetched.pollFirst() : affinityRouter.next(worker, prefetched);
+    }
+
+    private void dispatchWorkIfAvailable() {
+        writeResultsIfIdle();
+        checkTerminationConditions();
+        rateLimited = false;
+        Deque<ActorRef> workersWithNothingToTake = new ArrayDeque<>();
+        while (hasWorkToDispatch() && !workersWithCredits.isEmpty() && canDispatch()) {
+            ActorRef worker = workersWithCredits.pollFirst();
+            WorkerState state = workers.get(worker);
+            if (!dispatchWorkTo(worker)) {
+                workersWithNothingToTake.addLast(worker);
+            } else if (--state.credits > 0) {
+                workersWithCredits.addLast(worker);
+            }
+        }
+        workersWithNothingToTake.descendingIterator().forEachRemaining(workersWithCredits::addFirst);
+        if (rateLimiter != null) {
+            awaitTokensIfRateLimited();
+        }
+        pullIfBelowLowWatermark();
+        hedgeStragglers();
+        boolean noMoreWork = terminationReason != null || resultSinkFailure != null || (sourceExhausted && !pullPending && !hasWorkToDispatch() && retriesPending == 0);
+        if (noMoreWork && workInFlight.isEmpty() && allPartialResultsFlushed()) {
+            closeResultSinkOrComplete();
+        }
+    }
+
+    private boolean allPartialResultsFlushed() {
+        boolean allFlushed = true;
+        for (Map.Entry<ActorRef, WorkerState> worker : workers.entrySet()) {
+            WorkerState state = worker.getValue();
+            if (!state.unflushed.isEmpty()) {
+                allFlushed = false;
+                if (!state.flushRequested) {
+                    state.flushRequested = true;
+                    worker.getKey().tell(new Worker.FlushPartialResult(), self());
+                }
+            }
+        }
+        return allFlushed;
+    }
+
+    private void closeResultSinkOrComplete() {
+        if (resultSink == null) {
+            complete();
+        } else if (recordsBeingWritten == 0 && pendingRecords.isEmpty() && !closingResultSink) {
+            closingResultSink = true;
+            ActorRef self = self();
+            try {
+                resultSink.close().whenComplete((done, failure) -> self.tell(new ResultSinkClosed(failure), ActorRef.noSender()));
+            } catch (RuntimeException e) {
+                self.tell(new ResultSinkClosed(e), ActorRef.noSender());
+            }
+        }
+    }
+
+    private void complete() {
+        if (terminationReason == null) {
+            terminationReason = resultSinkFailure == null ? TerminationReason.ALL_WORK_DONE : TerminationReason.RESULT_SINK_FAILED;
+        }
+        if (checkpointLog != null) {
+            checkpointLog.complete();
+            checkpointLog = null;
+        }
+        workers.keySet().forEach(worker -> worker.tell(new Worker.NoMoreWork(), self()));
+        if (metricsExporter != null) {
+            metricsExporter.export(metrics());
+        }
+        if (progressReporter != null) {
+            context().watch(progressReporter);
+            progressReporter.tell(new ProgressReportingActor.Completed(snapshot()), self());
+            progressReporter.tell(PoisonPill.getInstance(), self());
+            context().become(match(Terminated.class, message -> message.actor().equals(progressReporter), message -> context().stop(self()))
+                    .match(Object.class, message -> {}).build());
+            return;
+        }
+        onCompleteCallback.reportProgress(snapshot());
+        self().tell(PoisonPill.getInstance(), self());
+        context().become(match(Object.class, message -> {}).build());
+    }
+
+    private boolean dispatchWorkTo(ActorRef worker) {
+        int batchSize = batchSizer.nextBatchSize();
+        if (batchSize == 1) {
+            WorkItem<T> item = nextWorkItemFor(worker);
+            if (item == null) {
+                return false;
             }
+            inFlightWith(worker, item);
+            worker.tell(new Worker.Work<>(item.workId, item.work), self());
+            return true;
         }
+        List<WorkItem<T>> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize && hasWorkToDispatch() && (batch.isEmpty() || canDispatch())) {
+            WorkItem<T> item = nextWorkItemFor(worker);
+            if (item == null) {
+                break;
+            }
+            batch.add(inFlightWith(worker, item));
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        worker.tell(new Worker.WorkBatch<>(batch.stream().mapToLong(item -> item.workId).toArray(),
+                batch.stream().map(item -> item.work).collect(Collectors.toList())), self());
+        return true;
+    }
+
+    private WorkItem<T> inFlightWith(ActorRef worker, WorkItem<T> item) {
+        WorkerState state = workers.get(worker);
+        state.costInFlight += item.cost;
+        state.inFlight++;
+        if (rateLimiter != null && !rateLimiter.isPerKey()) {
+            rateLimiter.tryAcquire(item.work, System.nanoTime());
+        }
+        if (reorderBuffer != null) {
+            reorderBuffer.sequence(item);
+        }
+        item.worker = worker;
+        item.dispatchedAt = System.nanoTime();
+        item.hedgeWorker = null;
+        workInFlight.put(item.workId, item);
+        return item;
     }
 
     void spawnChildren(Creator<Worker<T, E>> workerCreator) {
-        IntStream.range(0, numberOfWorkers).forEach(i -> context().actorOf(Props.create(Worker.class, workerCreator::create)));
+        IntStream.range(0, numberOfWorkers).forEach(i -> spawnWorker(workerCreator));
+    }
+
+    void spawnWorker(Creator<Worker<T, E>> workerCreator) {
+        Props workerProps = Props.create(Worker.class, workerCreator::create);
+        context().actorOf(workerDispatcher == null ? workerProps : workerProps.withDispatcher(workerDispatcher));
     }
 
     public static <T, E> Props props(Iterator<T> itemsToDispatch, int numberOfWorkers, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProcessingResultProgressReporter<E> progressReportCallback, ProcessingResultProgressReporter<E> onCompleteCallback) {
+        return props(itemsToDispatch, numberOfWorkers, workerCreator, baseResult, resultAccumulator, progressReportCallback, onCompleteCallback, WorkDispatcherSettings.create());
+    }
+
+    public static <T, E> Props props(Iterator<T> itemsToDispatch, int numberOfWorkers, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProcessingResultProgressReporter<E> progressReportCallback, ProcessingResultProgressReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        return props(itemsToDispatch, numberOfWorkers, workerCreator, baseResult, resultAccumulator, ProgressSnapshotReporter.of(progressReportCallback), ProgressSnapshotReporter.of(onCompleteCallback), settings);
+    }
+
+    public static <T, E> Props props(Iterator<T> itemsToDispatch, int numberOfWorkers, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProgressSnapshotReporter<E> progressReportCallback, ProgressSnapshotReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
         if (!itemsToDispatch.hasNext()) {
             throw new IllegalArgumentException("itemsToDispatch must not be empty");
         }
@@ -76,28 +960,215 @@ public class WorkDispatcher<T, E> extends AbstractActor {
             throw new IllegalArgumentException("numberOfWorkers must be greater than zero");
         }
 
-        return Props.create(WorkDispatcher.class, itemsToDispatch, numberOfWorkers, workerCreator, baseResult, resultAccumulator, progressReportCallback, onCompleteCallback);
+        Objects.requireNonNull(settings, "settings must not be null").validate();
+
+        return Props.create(WorkDispatcher.class, itemsToDispatch, numberOfWorkers, workerCreator, baseResult, resultAccumulator, progressReportCallback, onCompleteCallback, settings);
+    }
+
+    public static <T> Props longProps(Iterator<T> itemsToDispatch, int numberOfWorkers, Creator<Worker<T, Long>> workerCreator, long baseResult, LongProcessingResult.LongResultAccumulator resultAccumulator, ProcessingResultProgressReporter<Long> progressReportCallback, ProcessingResultProgressReporter<Long> onCompleteCallback) {
+        return longProps(itemsToDispatch, numberOfWorkers, workerCreator, baseResult, resultAccumulator, progressReportCallback, onCompleteCallback, WorkDispatcherSettings.create());
+    }
+
+    public static <T> Props longProps(Iterator<T> itemsToDispatch, int numberOfWorkers, Creator<Worker<T, Long>> workerCreator, long baseResult, LongProcessingResult.LongResultAccumulator resultAccumulator, ProcessingResultProgressReporter<Long> progressReportCallback, ProcessingResultProgressReporter<Long> onCompleteCallback, WorkDispatcherSettings settings) {
+        return props(itemsToDispatch, numberOfWorkers, workerCreator, new LongProcessingResult(baseResult, resultAccumulator), ProgressSnapshotReporter.of(progressReportCallback), ProgressSnapshotReporter.of(onCompleteCallback), settings);
+    }
+
+    public static <T> Props doubleProps(Iterator<T> itemsToDispatch, int numberOfWorkers, Creator<Worker<T, Double>> workerCreator, double baseResult, DoubleProcessingResult.DoubleResultAccumulator resultAccumulator, ProcessingResultProgressReporter<Double> progressReportCallback, ProcessingResultProgressReporter<Double> onCompleteCallback) {
+        return doubleProps(itemsToDispatch, numberOfWorkers, workerCreator, baseResult, resultAccumulator, progressReportCallback, onCompleteCallback, WorkDispatcherSettings.create());
+    }
+
+    public static <T> Props doubleProps(Iterator<T> itemsToDispatch, int numberOfWorkers, Creator<Worker<T, Double>> workerCreator, double baseResult, DoubleProcessingResult.DoubleResultAccumulator resultAccumulator, ProcessingResultProgressReporter<Double> progressReportCallback, ProcessingResultProgressReporter<Double> onCompleteCallback, WorkDispatcherSettings settings) {
+        return props(itemsToDispatch, numberOfWorkers, workerCreator, new DoubleProcessingResult(baseResult, resultAccumulator), ProgressSnapshotReporter.of(progressReportCallback), ProgressSnapshotReporter.of(onCompleteCallback), settings);
+    }
+
+    static <T, E> Props props(Iterator<T> itemsToDispatch, int numberOfWorkers, Creator<Worker<T, E>> workerCreator, ResultCollector<E> processingResult, ProgressSnapshotReporter<E> progressReportCallback, ProgressSnapshotReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        if (!itemsToDispatch.hasNext()) {
+            throw new IllegalArgumentException("itemsToDispatch must not be empty");
+        }
+
+        return props(WorkSource.fromIterator(itemsToDispatch), numberOfWorkers, workerCreator, processingResult, progressReportCallback, onCompleteCallback, settings);
+    }
+
+    public static <T, E> Props props(WorkSource<T> workSource, int numberOfWorkers, Creator<Worker<T, E>> workerCreator, E baseResult, ProcessingResult.ResultAccumulator<E> resultAccumulator, ProgressSnapshotReporter<E> progressReportCallback, ProgressSnapshotReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        return props(workSource, numberOfWorkers, workerCreator, new ProcessingResult<>(baseResult, resultAccumulator), progressReportCallback, onCompleteCallback, settings);
+    }
+
+    static <T, E> Props props(WorkSource<T> workSource, int numberOfWorkers, Creator<Worker<T, E>> workerCreator, ResultCollector<E> processingResult, ProgressSnapshotReporter<E> progressReportCallback, ProgressSnapshotReporter<E> onCompleteCallback, WorkDispatcherSettings settings) {
+        Objects.requireNonNull(workSource, "workSource must not be null");
+        if (numberOfWorkers <= 0) {
+            throw new IllegalArgumentException("numberOfWorkers must be greater than zero");
+        }
+        Objects.requireNonNull(settings, "settings must not be null").validate();
+
+        return Props.create(WorkDispatcher.class, () -> new WorkDispatcher<>(workSource, numberOfWorkers, workerCreator, processingResult, progressReportCallback, onCompleteCallback, settings));
+    }
+
+    public static CompletionStage<DispatcherMetrics> metrics(ActorRef dispatcher, FiniteDuration timeout) {
+        return PatternsCS.ask(Objects.requireNonNull(dispatcher, "dispatcher must not be null"), new GetMetrics(), Timeout.durationToTimeout(timeout))
+                .thenApply(DispatcherMetrics.class::cast);
     }
 
     static class WorkDoneGetMore extends GetWork {
+        final long workId;
         final Object resultOfWorkDone;
+        final long processingNanos;
+
+        WorkDoneGetMore(long workId, Object resultOfWorkDone) {
+            this(workId, resultOfWorkDone, -1L);
+        }
 
-        WorkDoneGetMore(Object resultOfWorkDone) {
+        WorkDoneGetMore(long workId, Object resultOfWorkDone, long processingNanos) {
+            this.workId = workId;
             this.resultOfWorkDone = Objects.requireNonNull(resultOfWorkDone, "resultOfWorkDone must not be null");
+            this.processingNanos = processingNanos;
         }
 
     }
 
     static class WorkFailedGetMore extends GetWork {
+        final long workId;
         final Throwable failureOfWorkDone;
+        final long processingNanos;
 
-        WorkFailedGetMore(Throwable failureOfWorkDone) {
+        WorkFailedGetMore(long workId, Throwable failureOfWorkDone) {
+            this(workId, failureOfWorkDone, -1L);
+        }
+
+        WorkFailedGetMore(long workId, Throwable failureOfWorkDone, long processingNanos) {
+            this.workId = workId;
             this.failureOfWorkDone = Objects.requireNonNull(failureOfWorkDone, "failureOfWorkDone must not be null");
+            this.processingNanos = processingNanos;
         }
 
     }
 
-    static class GetWork {
+    static class ReportProgress {
+    }
+
+    static class WriteCheckpoint {
+    }
+
+    static class CheckpointReleased {
+    }
+
+    static class CancelJob {
+    }
+
+    static class TokensRefilled {
+    }
+
+    static class GetMetrics {
+    }
+
+    static class ExportMetrics {
+    }
+
+    static class SweepInFlight {
+    }
+
+    static class RetryWork {
+        final WorkItem<?> item;
+
+        RetryWork(WorkItem<?> item) {
+            this.item = item;
+        }
+    }
+
+    static class ResultsWritten {
+        final Throwable failure;
+
+        ResultsWritten(Throwable failure) {
+            this.failure = failure;
+        }
+    }
+
+    static class ResultSinkClosed {
+        final Throwable failure;
+
+        ResultSinkClosed(Throwable failure) {
+            this.failure = failure;
+        }
+    }
+
+    static class ItemsPulled<T> {
+        final List<T> items;
+        final Throwable failure;
+
+        ItemsPulled(List<T> items, Throwable failure) {
+            this.items = items;
+            this.failure = failure;
+        }
+    }
+
+    static class BatchDoneGetMore extends GetWork {
+        final long[] workIds;
+        final Object[] resultsOfWorkDone;
+        final Throwable[] failuresOfWorkDone;
+        final long[] processingNanos;
+
+        BatchDoneGetMore(long[] workIds, Object[] resultsOfWorkDone, Throwable[] failuresOfWorkDone, long[] processingNanos) {
+            if (workIds.length != resultsOfWorkDone.length || resultsOfWorkDone.length != failuresOfWorkDone.length || failuresOfWorkDone.length != processingNanos.length) {
+                throw new IllegalArgumentException("workIds, resultsOfWorkDone, failuresOfWorkDone and processingNanos must have the same length");
+            }
+            this.workIds = workIds;
+            this.resultsOfWorkDone = resultsOfWorkDone;
+            this.failuresOfWorkDone = failuresOfWorkDone;
+            this.processingNanos = processingNanos;
+        }
+
+        int size() {
+            return resultsOfWorkDone.length;
+        }
+    }
+
+    static class GetWork implements WorkPullingMessage {
+        final int credits;
+        final boolean localAggregation;
+
+        GetWork() {
+            this(1);
+        }
+
+        GetWork(int credits) {
+            this(credits, false);
+        }
+
+        GetWork(int credits, boolean localAggregation) {
+            this.credits = credits;
+            this.localAggregation = localAggregation;
+        }
+    }
+
+    static class WorkAggregatedGetMore extends GetWork {
+        final long workId;
+        final long processingNanos;
+
+        WorkAggregatedGetMore(long workId) {
+            this(workId, -1L);
+        }
+
+        WorkAggregatedGetMore(long workId, long processingNanos) {
+            this.workId = workId;
+            this.processingNanos = processingNanos;
+        }
+    }
+
+    static class PartialResult implements WorkPullingMessage {
+        final Object partialResult;
+        final int itemsAggregated;
+
+        PartialResult(Object partialResult, int itemsAggregated) {
+            this.partialResult = Objects.requireNonNull(partialResult, "partialResult must not be null");
+            this.itemsAggregated = itemsAggregated;
+        }
+    }
+
+    private class WorkerState {
+        int credits;
+        long costInFlight;
+        int inFlight;
+        final List<WorkItem<T>> unflushed = new ArrayList<>();
+        boolean flushRequested;
     }
 
 }
@@ -0,0 +1,32 @@
+package com.mylaesoftware.actors;
+
+import java.util.Map;
+
+public interface WorkDispatcherMetricsMXBean {
+
+    long getItemsProcessed();
+
+    double getItemsPerSecond();
+
+    long getProcessingLatencyMeanNanos();
+
+    long getProcessingLatencyP50Nanos();
+
+    long getProcessingLatencyP99Nanos();
+
+    long getProcessingLatencyMaxNanos();
+
+    long getRoundTripLatencyP50Nanos();
+
+    long getRoundTripLatencyP99Nanos();
+
+    int getWorkInFlight();
+
+    int getWorkers();
+
+    int getIdleWorkers();
+
+    int getMailboxDepth();
+
+    Map<String, Double> getFailuresPerSecond();
+}
@@ -0,0 +1,528 @@
+package com.mylaesoftware.actors;
+
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+public final class WorkDispatcherSettings implements Cloneable {
+
+    public static final long DEFAULT_PROGRESS_REPORT_EVERY = 1L;
+
+    private int batchSize = 1;
+    private int maxBatchSize = 1;
+    private FiniteDuration targetBatchDuration;
+    private Long progressReportEvery;
+    private FiniteDuration progressReportInterval;
+    private String progressReportDispatcher;
+    private int minConcurrency;
+    private int maxConcurrency;
+    private double latencyTolerance;
+    private int prefetch = 64;
+    private ResultSink<?, ?> resultSink;
+    private int maxBufferedResults;
+    private boolean failuresToResultSink;
+    private Path checkpointFile;
+    private PayloadCodec<?> checkpointCodec;
+    private int checkpointEvery;
+    private FiniteDuration checkpointSyncInterval;
+    private RetryPolicy retryPolicy;
+    private FiniteDuration itemTimeout;
+    private FiniteDuration hedgeAfter;
+    private ProcessingResult.ResultAccumulator<?> partialResultCombiner;
+    private String workerDispatcher;
+    private Function<?, ?> affinityKeyExtractor;
+    private int maxAffinityKeys;
+    private ToLongFunction<?> costEstimator;
+    private int costLookahead;
+    private long maxCostInFlightPerWorker;
+    private Predicate<?> stopWhen;
+    private Map<Class<? extends Throwable>, Integer> maxFailures = Collections.emptyMap();
+    private long itemLimit;
+    private boolean cancelWorkInFlightOnTermination;
+    private int reorderBufferSize;
+    private double rateLimit;
+    private int rateLimitBurst;
+    private Function<?, ?> rateLimitKeyExtractor;
+    private int maxRateLimitKeys;
+    private MetricsExporter metricsExporter;
+    private FiniteDuration metricsExportInterval;
+
+    private WorkDispatcherSettings() {
+    }
+
+    public static WorkDispatcherSettings create() {
+        return new WorkDispatcherSettings();
+    }
+
+    public WorkDispatcherSettings withBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.batchSize = batchSize;
+        settings.maxBatchSize = batchSize;
+        settings.targetBatchDuration = null;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withAdaptiveBatchSize(int maxBatchSize, FiniteDuration targetBatchDuration) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be greater than zero");
+        }
+        if (targetBatchDuration.toNanos() <= 0) {
+            throw new IllegalArgumentException("targetBatchDuration must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.batchSize = 1;
+        settings.maxBatchSize = maxBatchSize;
+        settings.targetBatchDuration = targetBatchDuration;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withProgressReportEvery(long items) {
+        if (items <= 0) {
+            throw new IllegalArgumentException("items must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.progressReportEvery = items;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withProgressReportInterval(FiniteDuration interval) {
+        if (interval.toNanos() <= 0) {
+            throw new IllegalArgumentException("interval must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.progressReportInterval = interval;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withProgressReportDispatcher(String dispatcherId) {
+        WorkDispatcherSettings settings = copy();
+        settings.progressReportDispatcher = Objects.requireNonNull(dispatcherId, "dispatcherId must not be null");
+        return settings;
+    }
+
+    public WorkDispatcherSettings withAdaptiveConcurrency(int minConcurrency, int maxConcurrency) {
+        return withAdaptiveConcurrency(minConcurrency, maxConcurrency, 2.0);
+    }
+
+    public WorkDispatcherSettings withAdaptiveConcurrency(int minConcurrency, int maxConcurrency, double latencyTolerance) {
+        if (minConcurrency <= 0) {
+            throw new IllegalArgumentException("minConcurrency must be greater than zero");
+        }
+        if (maxConcurrency < minConcurrency) {
+            throw new IllegalArgumentException("maxConcurrency must not be less than minConcurrency");
+        }
+        if (latencyTolerance < 1.0) {
+            throw new IllegalArgumentException("latencyTolerance must not be less than one");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.minConcurrency = minConcurrency;
+        settings.maxConcurrency = maxConcurrency;
+        settings.latencyTolerance = latencyTolerance;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withPrefetch(int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.prefetch = prefetch;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withResultSink(ResultSink<?, ?> resultSink, int maxBufferedResults) {
+        return withResultSink(resultSink, maxBufferedResults, false);
+    }
+
+    public WorkDispatcherSettings withResultSink(ResultSink<?, ?> resultSink, int maxBufferedResults, boolean includeFailures) {
+        if (maxBufferedResults <= 0) {
+            throw new IllegalArgumentException("maxBufferedResults must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.resultSink = Objects.requireNonNull(resultSink, "resultSink must not be null");
+        settings.maxBufferedResults = maxBufferedResults;
+        settings.failuresToResultSink = includeFailures;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withCheckpoint(Path file, PayloadCodec<?> resultCodec) {
+        return withCheckpoint(file, resultCodec, 1000, Duration.create(1, TimeUnit.SECONDS));
+    }
+
+    public WorkDispatcherSettings withCheckpoint(Path file, PayloadCodec<?> resultCodec, int checkpointEvery, FiniteDuration syncInterval) {
+        if (checkpointEvery <= 0) {
+            throw new IllegalArgumentException("checkpointEvery must be greater than zero");
+        }
+        if (syncInterval.toNanos() <= 0) {
+            throw new IllegalArgumentException("syncInterval must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.checkpointFile = Objects.requireNonNull(file, "file must not be null");
+        settings.checkpointCodec = Objects.requireNonNull(resultCodec, "resultCodec must not be null");
+        settings.checkpointEvery = checkpointEvery;
+        settings.checkpointSyncInterval = syncInterval;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withRetryPolicy(RetryPolicy retryPolicy) {
+        WorkDispatcherSettings settings = copy();
+        settings.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy must not be null");
+        return settings;
+    }
+
+    public WorkDispatcherSettings withItemTimeout(FiniteDuration itemTimeout) {
+        if (itemTimeout.toNanos() <= 0) {
+            throw new IllegalArgumentException("itemTimeout must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.itemTimeout = itemTimeout;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withSpeculativeExecution(FiniteDuration hedgeAfter) {
+        if (hedgeAfter.toNanos() <= 0) {
+            throw new IllegalArgumentException("hedgeAfter must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.hedgeAfter = hedgeAfter;
+        return settings;
+    }
+
+    public <E> WorkDispatcherSettings withLocalAggregation(ProcessingResult.ResultAccumulator<E> partialResultCombiner) {
+        WorkDispatcherSettings settings = copy();
+        settings.partialResultCombiner = Objects.requireNonNull(partialResultCombiner, "partialResultCombiner must not be null");
+        return settings;
+    }
+
+    public WorkDispatcherSettings withWorkerDispatcher(String dispatcherId) {
+        WorkDispatcherSettings settings = copy();
+        settings.workerDispatcher = Objects.requireNonNull(dispatcherId, "dispatcherId must not be null");
+        return settings;
+    }
+
+    public <T> WorkDispatcherSettings withKeyAffinity(Function<T, ?> keyExtractor) {
+        return withKeyAffinity(keyExtractor, 10000);
+    }
+
+    public <T> WorkDispatcherSettings withKeyAffinity(Function<T, ?> keyExtractor, int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.affinityKeyExtractor = Objects.requireNonNull(keyExtractor, "keyExtractor must not be null");
+        settings.maxAffinityKeys = maxKeys;
+        return settings;
+    }
+
+    public <T> WorkDispatcherSettings withCostEstimator(ToLongFunction<T> costEstimator, int lookahead) {
+        return withCostEstimator(costEstimator, lookahead, Long.MAX_VALUE);
+    }
+
+    public <T> WorkDispatcherSettings withCostEstimator(ToLongFunction<T> costEstimator, int lookahead, long maxCostInFlightPerWorker) {
+        if (lookahead <= 0) {
+            throw new IllegalArgumentException("lookahead must be greater than zero");
+        }
+        if (maxCostInFlightPerWorker <= 0) {
+            throw new IllegalArgumentException("maxCostInFlightPerWorker must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.costEstimator = Objects.requireNonNull(costEstimator, "costEstimator must not be null");
+        settings.costLookahead = lookahead;
+        settings.maxCostInFlightPerWorker = maxCostInFlightPerWorker;
+        return settings;
+    }
+
+    public <E> WorkDispatcherSettings withStopWhen(Predicate<E> accumulatedResultCondition) {
+        WorkDispatcherSettings settings = copy();
+        settings.stopWhen = Objects.requireNonNull(accumulatedResultCondition, "accumulatedResultCondition must not be null");
+        return settings;
+    }
+
+    public WorkDispatcherSettings withMaxFailures(Class<? extends Throwable> failureClass, int maxFailures) {
+        Objects.requireNonNull(failureClass, "failureClass must not be null");
+        if (maxFailures < 0) {
+            throw new IllegalArgumentException("maxFailures must not be negative");
+        }
+        WorkDispatcherSettings settings = copy();
+        Map<Class<? extends Throwable>, Integer> failureThresholds = new HashMap<>(this.maxFailures);
+        failureThresholds.put(failureClass, maxFailures);
+        settings.maxFailures = Collections.unmodifiableMap(failureThresholds);
+        return settings;
+    }
+
+    public WorkDispatcherSettings withItemLimit(long itemLimit) {
+        if (itemLimit <= 0) {
+            throw new IllegalArgumentException("itemLimit must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.itemLimit = itemLimit;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withCancelWorkInFlightOnTermination(boolean cancelWorkInFlight) {
+        WorkDispatcherSettings settings = copy();
+        settings.cancelWorkInFlightOnTermination = cancelWorkInFlight;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withOrderedResults(int reorderBufferSize) {
+        if (reorderBufferSize <= 0) {
+            throw new IllegalArgumentException("reorderBufferSize must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.reorderBufferSize = reorderBufferSize;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withRateLimit(double itemsPerSecond, int burst) {
+        return withRateLimit(itemsPerSecond, burst, null, 0);
+    }
+
+    public <T> WorkDispatcherSettings withRateLimitPerKey(double itemsPerSecond, int burst, Function<T, ?> keyExtractor) {
+        return withRateLimitPerKey(itemsPerSecond, burst, keyExtractor, 10000);
+    }
+
+    public <T> WorkDispatcherSettings withRateLimitPerKey(double itemsPerSecond, int burst, Function<T, ?> keyExtractor, int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be greater than zero");
+        }
+        return withRateLimit(itemsPerSecond, burst, Objects.requireNonNull(keyExtractor, "keyExtractor must not be null"), maxKeys);
+    }
+
+    private WorkDispatcherSettings withRateLimit(double itemsPerSecond, int burst, Function<?, ?> keyExtractor, int maxKeys) {
+        if (itemsPerSecond <= 0) {
+            throw new IllegalArgumentException("itemsPerSecond must be greater than zero");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.rateLimit = itemsPerSecond;
+        settings.rateLimitBurst = burst;
+        settings.rateLimitKeyExtractor = keyExtractor;
+        settings.maxRateLimitKeys = maxKeys;
+        return settings;
+    }
+
+    public WorkDispatcherSettings withMetricsExporter(MetricsExporter exporter, FiniteDuration interval) {
+        if (interval.toNanos() <= 0) {
+            throw new IllegalArgumentException("interval must be greater than zero");
+        }
+        WorkDispatcherSettings settings = copy();
+        settings.metricsExporter = Objects.requireNonNull(exporter, "exporter must not be null");
+        settings.metricsExportInterval = interval;
+        return settings;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public boolean isAdaptiveBatchSize() {
+        return targetBatchDuration != null;
+    }
+
+    public FiniteDuration getTargetBatchDuration() {
+        return targetBatchDuration;
+    }
+
+    public long getProgressReportEvery() {
+        if (progressReportEvery != null) {
+            return progressReportEvery;
+        }
+        return progressReportInterval == null ? DEFAULT_PROGRESS_REPORT_EVERY : 0L;
+    }
+
+    public FiniteDuration getProgressReportInterval() {
+        return progressReportInterval;
+    }
+
+    public String getProgressReportDispatcher() {
+        return progressReportDispatcher;
+    }
+
+    public boolean isAdaptiveConcurrency() {
+        return maxConcurrency > 0;
+    }
+
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public ResultSink<?, ?> getResultSink() {
+        return resultSink;
+    }
+
+    public int getMaxBufferedResults() {
+        return maxBufferedResults;
+    }
+
+    public boolean isFailuresToResultSink() {
+        return failuresToResultSink;
+    }
+
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public PayloadCodec<?> getCheckpointCodec() {
+        return checkpointCodec;
+    }
+
+    public int getCheckpointEvery() {
+        return checkpointEvery;
+    }
+
+    public FiniteDuration getCheckpointSyncInterval() {
+        return checkpointSyncInterval;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public FiniteDuration getItemTimeout() {
+        return itemTimeout;
+    }
+
+    public FiniteDuration getHedgeAfter() {
+        return hedgeAfter;
+    }
+
+    public ProcessingResult.ResultAccumulator<?> getPartialResultCombiner() {
+        return partialResultCombiner;
+    }
+
+    public String getWorkerDispatcher() {
+        return workerDispatcher;
+    }
+
+    public Function<?, ?> getAffinityKeyExtractor() {
+        return affinityKeyExtractor;
+    }
+
+    public int getMaxAffinityKeys() {
+        return maxAffinityKeys;
+    }
+
+    public ToLongFunction<?> getCostEstimator() {
+        return costEstimator;
+    }
+
+    public int getCostLookahead() {
+        return costLookahead;
+    }
+
+    public long getMaxCostInFlightPerWorker() {
+        return maxCostInFlightPerWorker;
+    }
+
+    public Predicate<?> getStopWhen() {
+        return stopWhen;
+    }
+
+    public Map<Class<? extends Throwable>, Integer> getMaxFailures() {
+        return maxFailures;
+    }
+
+    public long getItemLimit() {
+        return itemLimit;
+    }
+
+    public boolean isCancelWorkInFlightOnTermination() {
+        return cancelWorkInFlightOnTermination;
+    }
+
+    public boolean isOrderedResults() {
+        return reorderBufferSize > 0;
+    }
+
+    public int getReorderBufferSize() {
+        return reorderBufferSize;
+    }
+
+    public boolean isRateLimited() {
+        return rateLimit > 0;
+    }
+
+    public double getRateLimit() {
+        return rateLimit;
+    }
+
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public Function<?, ?> getRateLimitKeyExtractor() {
+        return rateLimitKeyExtractor;
+    }
+
+    public int getMaxRateLimitKeys() {
+        return maxRateLimitKeys;
+    }
+
+    public MetricsExporter getMetricsExporter() {
+        return metricsExporter;
+    }
+
+    public FiniteDuration getMetricsExportInterval() {
+        return metricsExportInterval;
+    }
+
+    void validate() {
+        if (rateLimitKeyExtractor != null && (costEstimator != null || affinityKeyExtractor != null || reorderBufferSize > 0)) {
+            throw new IllegalArgumentException("rateLimitPerKey cannot be combined with costEstimator, keyAffinity or orderedResults");
+        }
+        if (reorderBufferSize > 0 && (costEstimator != null || affinityKeyExtractor != null || partialResultCombiner != null)) {
+            throw new IllegalArgumentException("orderedResults cannot be combined with costEstimator, keyAffinity or localAggregation");
+        }
+        if (costEstimator != null && affinityKeyExtractor != null) {
+            throw new IllegalArgumentException("costEstimator cannot be combined with keyAffinity");
+        }
+        if (partialResultCombiner == null) {
+            return;
+        }
+        if (hedgeAfter != null || itemTimeout != null) {
+            throw new IllegalArgumentException("localAggregation cannot be combined with itemTimeout or speculativeExecution");
+        }
+        if (resultSink != null || checkpointFile != null) {
+            throw new IllegalArgumentException("localAggregation cannot be combined with resultSink or checkpoint");
+        }
+    }
+
+    private WorkDispatcherSettings copy() {
+        try {
+            return (WorkDispatcherSettings) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
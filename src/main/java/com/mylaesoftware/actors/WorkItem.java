@@ -0,0 +1,23 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ActorRef;
+
+class WorkItem<T> {
+
+    final long workId;
+    final T work;
+    ActorRef worker;
+    long dispatchedAt;
+    int retries;
+    ActorRef hedgeWorker;
+    long cost;
+    long sequence = -1L;
+    boolean completed;
+    Object result;
+    Throwable failure;
+
+    WorkItem(long workId, T work) {
+        this.workId = workId;
+        this.work = work;
+    }
+}
@@ -0,0 +1,6 @@
+package com.mylaesoftware.actors;
+
+import java.io.Serializable;
+
+interface WorkPullingMessage extends Serializable {
+}
@@ -0,0 +1,284 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ExtendedActorSystem;
+import akka.serialization.SerializerWithStringManifest;
+import com.typesafe.config.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@SuppressWarnings("unchecked")
+public class WorkPullingSerializer extends SerializerWithStringManifest {
+
+    static final int IDENTIFIER = 1406271;
+    private static final int MAX_FAILURE_MESSAGE_LENGTH = 1024;
+    private static final String WORK = "W";
+    private static final String WORK_BATCH = "WB";
+    private static final String NO_MORE_WORK = "N";
+    private static final String GET_WORK = "G";
+    private static final String WORK_DONE = "D";
+    private static final String WORK_FAILED = "F";
+    private static final String BATCH_DONE = "BD";
+    private static final String WORK_AGGREGATED = "A";
+    private static final String PARTIAL_RESULT = "P";
+    private static final String FLUSH_PARTIAL_RESULT = "FP";
+    private static final byte ITEM_FAILED = 0;
+    private static final byte ITEM_SUCCEEDED = 1;
+    private static final byte ITEM_AGGREGATED = 2;
+
+    private final ClassLoader classLoader;
+    private final PayloadCodec<Object> workCodec;
+    private final PayloadCodec<Object> resultCodec;
+    private final boolean includeFailureMessages;
+    private final Set<String> failureClasses;
+
+    public WorkPullingSerializer(ExtendedActorSystem system) {
+        Config config = system.settings().config().getConfig("work-pulling.serialization");
+        this.classLoader = system.dynamicAccess().classLoader();
+        this.workCodec = createCodec(config.getString("work-codec"));
+        this.resultCodec = createCodec(config.getString("result-codec"));
+        this.includeFailureMessages = config.getBoolean("include-failure-messages");
+        this.failureClasses = Collections.unmodifiableSet(new HashSet<>(config.getStringList("failure-classes")));
+    }
+
+    WorkPullingSerializer(ClassLoader classLoader, PayloadCodec<Object> workCodec, PayloadCodec<Object> resultCodec, boolean includeFailureMessages, Set<String> failureClasses) {
+        this.classLoader = classLoader;
+        this.workCodec = workCodec;
+        this.resultCodec = resultCodec;
+        this.includeFailureMessages = includeFailureMessages;
+        this.failureClasses = failureClasses;
+    }
+
+    private PayloadCodec<Object> createCodec(String className) {
+        try {
+            return (PayloadCodec<Object>) Class.forName(className, true, classLoader).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot instantiate payload codec " + className, e);
+        }
+    }
+
+    @Override
+    public int identifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String manifest(Object message) {
+        if (message instanceof Worker.Work) {
+            return WORK;
+        } else if (message instanceof Worker.WorkBatch) {
+            return WORK_BATCH;
+        } else if (message instanceof Worker.NoMoreWork) {
+            return NO_MORE_WORK;
+        } else if (message instanceof Worker.FlushPartialResult) {
+            return FLUSH_PARTIAL_RESULT;
+        } else if (message instanceof WorkDispatcher.WorkAggregatedGetMore) {
+            return WORK_AGGREGATED;
+        } else if (message instanceof WorkDispatcher.PartialResult) {
+            return PARTIAL_RESULT;
+        } else if (message instanceof WorkDispatcher.WorkDoneGetMore) {
+            return WORK_DONE;
+        } else if (message instanceof WorkDispatcher.WorkFailedGetMore) {
+            return WORK_FAILED;
+        } else if (message instanceof WorkDispatcher.BatchDoneGetMore) {
+            return BATCH_DONE;
+        } else if (message instanceof WorkDispatcher.GetWork) {
+            return GET_WORK;
+        }
+        throw new IllegalArgumentException("Cannot serialize message of type " + message.getClass().getName());
+    }
+
+    @Override
+    public byte[] toBinary(Object message) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(manifest(message), message, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object fromBinary(byte[] bytes, String manifest) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return read(manifest, in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(String manifest, Object message, DataOutput out) throws IOException {
+        switch (manifest) {
+            case WORK:
+                Worker.Work<?> work = (Worker.Work<?>) message;
+                out.writeLong(work.workId);
+                workCodec.encode(work.work, out);
+                break;
+            case WORK_BATCH:
+                Worker.WorkBatch<?> batch = (Worker.WorkBatch<?>) message;
+                writeWorkIds(batch.workIds, out);
+                for (Object item : batch.work) {
+                    workCodec.encode(item, out);
+                }
+                break;
+            case GET_WORK:
+                WorkDispatcher.GetWork getWork = (WorkDispatcher.GetWork) message;
+                out.writeInt(getWork.credits);
+                out.writeBoolean(getWork.localAggregation);
+                break;
+            case WORK_DONE:
+                WorkDispatcher.WorkDoneGetMore done = (WorkDispatcher.WorkDoneGetMore) message;
+                out.writeLong(done.workId);
+                out.writeLong(done.processingNanos);
+                resultCodec.encode(done.resultOfWorkDone, out);
+                break;
+            case WORK_AGGREGATED:
+                WorkDispatcher.WorkAggregatedGetMore aggregated = (WorkDispatcher.WorkAggregatedGetMore) message;
+                out.writeLong(aggregated.workId);
+                out.writeLong(aggregated.processingNanos);
+                break;
+            case PARTIAL_RESULT:
+                WorkDispatcher.PartialResult partial = (WorkDispatcher.PartialResult) message;
+                out.writeInt(partial.itemsAggregated);
+                resultCodec.encode(partial.partialResult, out);
+                break;
+            case WORK_FAILED:
+                WorkDispatcher.WorkFailedGetMore failed = (WorkDispatcher.WorkFailedGetMore) message;
+                out.writeLong(failed.workId);
+                out.writeLong(failed.processingNanos);
+                writeFailure(failed.failureOfWorkDone, out);
+                break;
+            case BATCH_DONE:
+                WorkDispatcher.BatchDoneGetMore batchDone = (WorkDispatcher.BatchDoneGetMore) message;
+                writeWorkIds(batchDone.workIds, out);
+                for (int i = 0; i < batchDone.size(); i++) {
+                    out.writeLong(batchDone.processingNanos[i]);
+                    if (batchDone.resultsOfWorkDone[i] != null) {
+                        out.writeByte(ITEM_SUCCEEDED);
+                        resultCodec.encode(batchDone.resultsOfWorkDone[i], out);
+                    } else if (batchDone.failuresOfWorkDone[i] != null) {
+                        out.writeByte(ITEM_FAILED);
+                        writeFailure(batchDone.failuresOfWorkDone[i], out);
+                    } else {
+                        out.writeByte(ITEM_AGGREGATED);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Object read(String manifest, DataInput in) throws IOException {
+        switch (manifest) {
+            case WORK:
+                return new Worker.Work<>(in.readLong(), workCodec.decode(in));
+            case WORK_BATCH:
+                long[] workIds = readWorkIds(in);
+                List<Object> work = new ArrayList<>(workIds.length);
+                for (int i = 0; i < workIds.length; i++) {
+                    work.add(workCodec.decode(in));
+                }
+                return new Worker.WorkBatch<>(workIds, work);
+            case NO_MORE_WORK:
+                return new Worker.NoMoreWork();
+            case GET_WORK:
+                return new WorkDispatcher.GetWork(in.readInt(), in.readBoolean());
+            case WORK_DONE:
+                long doneWorkId = in.readLong();
+                long doneProcessingNanos = in.readLong();
+                return new WorkDispatcher.WorkDoneGetMore(doneWorkId, resultCodec.decode(in), doneProcessingNanos);
+            case FLUSH_PARTIAL_RESULT:
+                return new Worker.FlushPartialResult();
+            case WORK_AGGREGATED:
+                return new WorkDispatcher.WorkAggregatedGetMore(in.readLong(), in.readLong());
+            case PARTIAL_RESULT:
+                int itemsAggregated = in.readInt();
+                return new WorkDispatcher.PartialResult(resultCodec.decode(in), itemsAggregated);
+            case WORK_FAILED:
+                long failedWorkId = in.readLong();
+                long failedProcessingNanos = in.readLong();
+                return new WorkDispatcher.WorkFailedGetMore(failedWorkId, readFailure(in), failedProcessingNanos);
+            case BATCH_DONE:
+                long[] doneWorkIds = readWorkIds(in);
+                Object[] results = new Object[doneWorkIds.length];
+                Throwable[] failures = new Throwable[doneWorkIds.length];
+                long[] processingNanos = new long[doneWorkIds.length];
+                for (int i = 0; i < doneWorkIds.length; i++) {
+                    processingNanos[i] = in.readLong();
+                    byte outcome = in.readByte();
+                    if (outcome == ITEM_SUCCEEDED) {
+                        results[i] = resultCodec.decode(in);
+                    } else if (outcome == ITEM_FAILED) {
+                        failures[i] = readFailure(in);
+                    }
+                }
+                return new WorkDispatcher.BatchDoneGetMore(doneWorkIds, results, failures, processingNanos);
+            default:
+                throw new IllegalArgumentException("Unknown manifest " + manifest);
+        }
+    }
+
+    private static void writeWorkIds(long[] workIds, DataOutput out) throws IOException {
+        out.writeInt(workIds.length);
+        for (long workId : workIds) {
+            out.writeLong(workId);
+        }
+    }
+
+    private static long[] readWorkIds(DataInput in) throws IOException {
+        long[] workIds = new long[in.readInt()];
+        for (int i = 0; i < workIds.length; i++) {
+            workIds[i] = in.readLong();
+        }
+        return workIds;
+    }
+
+    private void writeFailure(Throwable failure, DataOutput out) throws IOException {
+        out.writeUTF(failure instanceof RemoteWorkFailure ? ((RemoteWorkFailure) failure).getFailureClassName() : failure.getClass().getName());
+        String message = includeFailureMessages ? failure.getMessage() : null;
+        out.writeBoolean(message != null);
+        if (message != null) {
+            out.writeUTF(message.length() > MAX_FAILURE_MESSAGE_LENGTH ? message.substring(0, MAX_FAILURE_MESSAGE_LENGTH) : message);
+        }
+    }
+
+    private Throwable readFailure(DataInput in) throws IOException {
+        String className = in.readUTF();
+        String message = in.readBoolean() ? in.readUTF() : null;
+        if (!failureClasses.contains(className)) {
+            return new RemoteWorkFailure(className, message);
+        }
+        try {
+            Class<?> failureClass = Class.forName(className, false, classLoader);
+            if (Throwable.class.isAssignableFrom(failureClass)) {
+                Throwable failure = instantiate((Class<? extends Throwable>) failureClass, message);
+                failure.setStackTrace(new StackTraceElement[0]);
+                return failure;
+            }
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // fall through to a generic failure that still carries the original class name
+        }
+        return new RemoteWorkFailure(className, message);
+    }
+
+    private static Throwable instantiate(Class<? extends Throwable> failureClass, String message) throws ReflectiveOperationException {
+        try {
+            return failureClass.getConstructor(String.class).newInstance(message);
+        } catch (NoSuchMethodException e) {
+            return failureClass.getConstructor().newInstance();
+        }
+    }
+}
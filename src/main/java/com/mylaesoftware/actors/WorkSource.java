@@ -0,0 +1,22 @@
+package com.mylaesoftware.actors;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+@FunctionalInterface
+public interface WorkSource<T> {
+
+    CompletionStage<List<T>> pull(int maxItems);
+
+    // pulls on the dispatcher thread: only for in-memory iterators, pass an executor for iterators that block on I/O
+    static <T> WorkSource<T> fromIterator(Iterator<T> iterator) {
+        return new IteratorWorkSource<>(iterator, null);
+    }
+
+    static <T> WorkSource<T> fromIterator(Iterator<T> iterator, Executor executor) {
+        return new IteratorWorkSource<>(iterator, Objects.requireNonNull(executor, "executor must not be null"));
+    }
+}
@@ -0,0 +1,17 @@
+package com.mylaesoftware.actors;
+
+import scala.concurrent.duration.FiniteDuration;
+
+public class WorkTimeoutException extends RuntimeException {
+
+    private final long workId;
+
+    public WorkTimeoutException(long workId, FiniteDuration timeout) {
+        super("Work item " + workId + " did not complete within " + timeout, null, false, false);
+        this.workId = workId;
+    }
+
+    public long getWorkId() {
+        return workId;
+    }
+}
@@ -1,57 +1,210 @@
 package com.mylaesoftware.actors;
 
 import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Cancellable;
 import akka.actor.PoisonPill;
 import akka.dispatch.OnComplete;
 import com.mylaesoftware.actors.WorkDispatcher.GetWork;
 import scala.concurrent.ExecutionContextExecutor;
 import scala.concurrent.Future;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import static akka.japi.pf.ReceiveBuilder.match;
+import static com.mylaesoftware.actors.WorkDispatcher.BatchDoneGetMore;
+import static com.mylaesoftware.actors.WorkDispatcher.PartialResult;
+import static com.mylaesoftware.actors.WorkDispatcher.WorkAggregatedGetMore;
 import static com.mylaesoftware.actors.WorkDispatcher.WorkDoneGetMore;
 import static com.mylaesoftware.actors.WorkDispatcher.WorkFailedGetMore;
-import static java.util.Optional.ofNullable;
 
 @SuppressWarnings("unchecked")
 public class Worker<T, E> extends AbstractActor {
 
 
     public final BiFunction<T, ExecutionContextExecutor, Future<E>> workProcessingFunction;
+    private final ProcessingResult.ResultAccumulator<E> localAccumulator;
+    private final int flushEvery;
+    private E partialResult;
+    private int itemsAggregated = 0;
+    private Cancellable flushTick;
+    private final ExecutionContextExecutor executionContext;
+    private final ResultCache<T, E> resultCache;
 
     public Worker(BiFunction<T, ExecutionContextExecutor, Future<E>> workProcessing) {
+        this(workProcessing, WorkerSettings.create());
+    }
+
+    public Worker(BiFunction<T, ExecutionContextExecutor, Future<E>> workProcessing, WorkerSettings settings) {
         workProcessingFunction = workProcessing;
+        localAccumulator = (ProcessingResult.ResultAccumulator<E>) settings.getLocalAccumulator();
+        flushEvery = settings.getFlushEvery();
+        resultCache = (ResultCache<T, E>) settings.getResultCache();
+        executionContext = settings.getExecutionDispatcher() == null ? context().dispatcher() : context().system().dispatchers().lookup(settings.getExecutionDispatcher());
         receive(
-                match(Work.class, message -> doWorkAndAskForMore((T) message.work))
-                .match(NoMoreWork.class, message -> self().tell(PoisonPill.getInstance(), self()))
+                match(Work.class, message -> doWorkAndAskForMore(message.workId, (T) message.work))
+                .match(WorkBatch.class, message -> doBatchWorkAndAskForMore(message.workIds, (List<T>) message.work))
+                .match(WorkAggregated.class, message -> {
+                    aggregate((E) message.result);
+                    context().parent().tell(new WorkAggregatedGetMore(message.workId, message.processingNanos), self());
+                    flushIfDue();
+                })
+                .match(BatchAggregated.class, message -> {
+                    BatchDoneGetMore batchDone = message.batchDone;
+                    for (int i = 0; i < batchDone.size(); i++) {
+                        if (batchDone.resultsOfWorkDone[i] != null) {
+                            aggregate((E) batchDone.resultsOfWorkDone[i]);
+                            batchDone.resultsOfWorkDone[i] = null;
+                        }
+                    }
+                    context().parent().tell(batchDone, self());
+                    flushIfDue();
+                })
+                .match(FlushPartialResult.class, message -> flush())
+                .match(NoMoreWork.class, message -> {
+                    flush();
+                    self().tell(PoisonPill.getInstance(), self());
+                })
                 .build()
         );
 
-        context().parent().tell(new GetWork(), self());
+        if (localAccumulator != null) {
+            flushTick = context().system().scheduler().schedule(settings.getFlushInterval(), settings.getFlushInterval(),
+                    self(), new FlushPartialResult(), context().dispatcher(), self());
+        }
+
+        context().parent().tell(new GetWork(settings.getCredits(), settings.isLocalAggregation()), self());
+    }
+
+    private Future<E> process(T work) {
+        if (resultCache == null) {
+            return workProcessingFunction.apply(work, executionContext);
+        }
+        return resultCache.computeIfAbsent(work, () -> workProcessingFunction.apply(work, executionContext));
     }
 
-    private void doWorkAndAskForMore(T work) {
-        workProcessingFunction.apply(work, context().dispatcher()).onComplete(new OnComplete<E>() {
+    private void aggregate(E result) {
+        partialResult = partialResult == null ? result : localAccumulator.accumulate(partialResult, result);
+        itemsAggregated++;
+    }
+
+    private void flushIfDue() {
+        if (itemsAggregated >= flushEvery) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (itemsAggregated > 0) {
+            context().parent().tell(new PartialResult(partialResult, itemsAggregated), self());
+            partialResult = null;
+            itemsAggregated = 0;
+        }
+    }
+
+    @Override
+    public void postStop() throws Exception {
+        if (flushTick != null) {
+            flushTick.cancel();
+        }
+    }
+
+    private void doWorkAndAskForMore(long workId, T work) {
+        final ActorRef parent = context().parent();
+        final ActorRef self = self();
+        long startedAt = System.nanoTime();
+        process(work).onComplete(new OnComplete<E>() {
             @Override
             public void onComplete(Throwable failure, E success) throws Throwable {
+                long processingNanos = System.nanoTime() - startedAt;
+
+                if (success != null && localAccumulator != null) {
+                    self.tell(new WorkAggregated<>(workId, success, processingNanos), self);
+                    return;
+                }
 
-                GetWork message = ofNullable(success)
-                        .map( s ->  (GetWork) new WorkDoneGetMore(s))
-                        .orElseGet(() -> new WorkFailedGetMore(failure));
+                GetWork message = success != null
+                        ? new WorkDoneGetMore(workId, success, processingNanos)
+                        : new WorkFailedGetMore(workId, failure, processingNanos);
 
-                context().parent().tell(message, self());
+                parent.tell(message, self);
             }
         }, context().dispatcher());
     }
 
-    static class NoMoreWork {
+    private void doBatchWorkAndAskForMore(long[] workIds, List<T> batch) {
+        Object[] results = new Object[batch.size()];
+        Throwable[] failures = new Throwable[batch.size()];
+        long[] processingNanos = new long[batch.size()];
+        AtomicInteger remaining = new AtomicInteger(batch.size());
+        final ActorRef parent = context().parent();
+        final ActorRef self = self();
+        for (int i = 0; i < batch.size(); i++) {
+            int index = i;
+            long startedAt = System.nanoTime();
+            process(batch.get(i)).onComplete(new OnComplete<E>() {
+                @Override
+                public void onComplete(Throwable failure, E success) throws Throwable {
+                    results[index] = success;
+                    failures[index] = failure;
+                    processingNanos[index] = System.nanoTime() - startedAt;
+                    if (remaining.decrementAndGet() == 0) {
+                        BatchDoneGetMore batchDone = new BatchDoneGetMore(workIds, results, failures, processingNanos);
+                        if (localAccumulator != null) {
+                            self.tell(new BatchAggregated(batchDone), self);
+                        } else {
+                            parent.tell(batchDone, self);
+                        }
+                    }
+                }
+            }, context().dispatcher());
+        }
+    }
+
+    static class NoMoreWork implements WorkPullingMessage {
+    }
+
+    static class FlushPartialResult implements WorkPullingMessage {
+    }
+
+    static class WorkAggregated<E> {
+        final long workId;
+        final E result;
+        final long processingNanos;
+
+        WorkAggregated(long workId, E result, long processingNanos) {
+            this.workId = workId;
+            this.result = result;
+            this.processingNanos = processingNanos;
+        }
+    }
+
+    static class BatchAggregated {
+        final BatchDoneGetMore batchDone;
+
+        BatchAggregated(BatchDoneGetMore batchDone) {
+            this.batchDone = batchDone;
+        }
+    }
+
+    static class Work<T> implements WorkPullingMessage {
+        final long workId;
+        final T work;
+
+        Work(long workId, T work) {
+            this.workId = workId;
+            this.work = work;
+        }
     }
 
-    static class Work<T> {
-        T work;
+    static class WorkBatch<T> implements WorkPullingMessage {
+        final long[] workIds;
+        final List<T> work;
 
-        Work(T work) {
+        WorkBatch(long[] workIds, List<T> work) {
+            this.workIds = workIds;
             this.work = work;
         }
     }
@@ -0,0 +1,15 @@
+package com.mylaesoftware.actors;
+
+public class WorkerLostException extends RuntimeException {
+
+    private final long workId;
+
+    public WorkerLostException(long workId, int attempts) {
+        super("Work item " + workId + " was lost with its worker " + attempts + " times", null, false, false);
+        this.workId = workId;
+    }
+
+    public long getWorkId() {
+        return workId;
+    }
+}
@@ -0,0 +1,93 @@
+package com.mylaesoftware.actors;
+
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.Objects;
+
+public final class WorkerSettings implements Cloneable {
+
+    private int credits = 1;
+    private ProcessingResult.ResultAccumulator<?> localAccumulator;
+    private int flushEvery;
+    private FiniteDuration flushInterval;
+    private String executionDispatcher;
+    private ResultCache<?, ?> resultCache;
+
+    private WorkerSettings() {
+    }
+
+    public static WorkerSettings create() {
+        return new WorkerSettings();
+    }
+
+    public WorkerSettings withCredits(int credits) {
+        if (credits <= 0) {
+            throw new IllegalArgumentException("credits must be greater than zero");
+        }
+        WorkerSettings settings = copy();
+        settings.credits = credits;
+        return settings;
+    }
+
+    public <E> WorkerSettings withLocalAggregation(ProcessingResult.ResultAccumulator<E> accumulator, int flushEvery, FiniteDuration flushInterval) {
+        if (flushEvery <= 0) {
+            throw new IllegalArgumentException("flushEvery must be greater than zero");
+        }
+        if (flushInterval.toNanos() <= 0) {
+            throw new IllegalArgumentException("flushInterval must be greater than zero");
+        }
+        WorkerSettings settings = copy();
+        settings.localAccumulator = Objects.requireNonNull(accumulator, "accumulator must not be null");
+        settings.flushEvery = flushEvery;
+        settings.flushInterval = flushInterval;
+        return settings;
+    }
+
+    public WorkerSettings withExecutionDispatcher(String dispatcherId) {
+        WorkerSettings settings = copy();
+        settings.executionDispatcher = Objects.requireNonNull(dispatcherId, "dispatcherId must not be null");
+        return settings;
+    }
+
+    public WorkerSettings withResultCache(ResultCache<?, ?> resultCache) {
+        WorkerSettings settings = copy();
+        settings.resultCache = Objects.requireNonNull(resultCache, "resultCache must not be null");
+        return settings;
+    }
+
+    public int getCredits() {
+        return credits;
+    }
+
+    public boolean isLocalAggregation() {
+        return localAccumulator != null;
+    }
+
+    public ProcessingResult.ResultAccumulator<?> getLocalAccumulator() {
+        return localAccumulator;
+    }
+
+    public int getFlushEvery() {
+        return flushEvery;
+    }
+
+    public FiniteDuration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public String getExecutionDispatcher() {
+        return executionDispatcher;
+    }
+
+    public ResultCache<?, ?> getResultCache() {
+        return resultCache;
+    }
+
+    private WorkerSettings copy() {
+        try {
+            return (WorkerSettings) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Futures;
+import akka.japi.Creator;
+import akka.testkit.JavaTestKit;
+import com.mylaesoftware.Eventually;
+import com.mylaesoftware.ExceptionTesting;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import scala.concurrent.duration.Duration;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class JobHandleTest implements Eventually, ExceptionTesting {
+
+    private static ActorSystem _system;
+
+    @BeforeClass
+    public static void setupAkka() {
+        _system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void teardown() {
+        JavaTestKit.shutdownActorSystem(_system);
+    }
+
+    @Test
+    public void result_shouldCompleteWithTheFinalSnapshot_whenAllWorkIsDone() throws Exception {
+        Creator<Worker<Integer, Integer>> identityWorker = () -> new Worker<>((item, executor) -> Futures.successful(item));
+        JobHandle<Integer> job = JobHandle.start(_system, onComplete -> WorkDispatcher.props(WorkSource.fromIterator(IntStream.rangeClosed(1, 100).iterator()), 4,
+                identityWorker, 0, Integer::sum, snapshot -> {}, onComplete, WorkDispatcherSettings.create()));
+
+        ProgressSnapshot<Integer> snapshot = job.result().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        assertThat(snapshot.getAccumulatedResult(), is(5050));
+        assertThat(snapshot.getFailures(), is(Collections.emptyMap()));
+        assertThat(snapshot.getTerminationReason().get(), is(TerminationReason.ALL_WORK_DONE));
+        assertTrue(job.isDone());
+    }
+
+    @Test
+    public void cancel_shouldStopDispatchingAndTearDownTheWorkers() throws Exception {
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        Creator<Worker<Integer, Integer>> stuckWorker = () -> new Worker<>((item, executor) -> Futures.future(() -> {
+            neverReleased.await(5, TimeUnit.SECONDS);
+            return 1;
+        }, executor));
+        JobHandle<Integer> job = JobHandle.start(_system, onComplete -> WorkDispatcher.props(WorkSource.fromIterator(IntStream.range(0, 1000).iterator()), 2,
+                stuckWorker, 0, Integer::sum, snapshot -> {}, onComplete, WorkDispatcherSettings.create()));
+        JavaTestKit watcher = new JavaTestKit(_system);
+        watcher.watch(job.getDispatcher());
+
+        job.cancel();
+
+        ProgressSnapshot<Integer> snapshot = job.result().toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertThat(snapshot.getItemsProcessed(), is(0L));
+        assertThat(snapshot.getTerminationReason().get(), is(TerminationReason.CANCELLED));
+        watcher.expectTerminated(job.getDispatcher());
+        neverReleased.countDown();
+    }
+
+    @Test
+    public void result_shouldCompleteExceptionally_whenTheDispatcherStopsWithoutCompleting() throws Exception {
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        Creator<Worker<Integer, Integer>> stuckWorker = () -> new Worker<>((item, executor) -> Futures.future(() -> {
+            neverReleased.await(5, TimeUnit.SECONDS);
+            return 1;
+        }, executor));
+        JobHandle<Integer> job = JobHandle.start(_system, onComplete -> WorkDispatcher.props(WorkSource.fromIterator(IntStream.range(0, 1000).iterator()), 2,
+                stuckWorker, 0, Integer::sum, snapshot -> {}, onComplete, WorkDispatcherSettings.create()));
+
+        _system.stop(job.getDispatcher());
+
+        ExecutionException exception = expect(ExecutionException.class, () -> job.result().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+        assertThat(exception.getCause().getMessage(), containsString("terminated before completing the job"));
+        neverReleased.countDown();
+    }
+
+    @Test
+    public void start_shouldThrowIllegalArgumentException_whenTheDispatcherSettingsAreInvalid() throws Exception {
+        Creator<Worker<Integer, Integer>> identityWorker = () -> new Worker<>((item, executor) -> Futures.successful(item));
+        WorkDispatcherSettings invalid = WorkDispatcherSettings.create().withLocalAggregation(Integer::sum).withItemTimeout(Duration.create(1, TimeUnit.SECONDS));
+
+        IllegalArgumentException exception = expect(IllegalArgumentException.class, () -> JobHandle.<Integer>start(_system, onComplete -> WorkDispatcher.props(
+                WorkSource.fromIterator(IntStream.range(0, 10).iterator()), 1, identityWorker, 0, Integer::sum, snapshot -> {}, onComplete, invalid)));
+        assertThat(exception.getMessage(), containsString("localAggregation"));
+    }
+}
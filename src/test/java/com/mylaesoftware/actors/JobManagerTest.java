@@ -0,0 +1,160 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Futures;
+import akka.testkit.JavaTestKit;
+import com.mylaesoftware.ActorTesting;
+import com.mylaesoftware.ExceptionTesting;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class JobManagerTest implements ExceptionTesting, ActorTesting {
+
+    private static ActorSystem _system;
+
+    @Override
+    public ActorSystem getActorSystem() {
+        return _system;
+    }
+
+    @BeforeClass
+    public static void setupAkka() {
+        _system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void teardown() {
+        JavaTestKit.shutdownActorSystem(_system);
+    }
+
+    @Test
+    public void jobManager_shouldCompleteASmallJobWithoutWaitingBehindALargeOne() throws Exception {
+        BlockingQueue<String> completed = new LinkedBlockingQueue<>();
+
+        withTestActor(JobManager.props(1), jobManager -> {
+            JobManager.submit(jobManager, countingJob(100000, snapshot -> completed.add("large")));
+            JobManager.submit(jobManager, countingJob(5, snapshot -> completed.add("small")));
+
+            assertThat(completed.poll(5, TimeUnit.SECONDS), is("small"));
+            assertThat(completed.poll(30, TimeUnit.SECONDS), is("large"));
+        });
+    }
+
+    @Test
+    public void jobManager_shouldShareWorkersBetweenJobsInProportionToTheirWeight() throws Exception {
+        List<String> processed = new CopyOnWriteArrayList<>();
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+
+        withTestActor(JobManager.props(1), jobManager -> {
+            JobManager.submit(jobManager, recordingJob("heavy", 2000, processed, completed).withWeight(3));
+            JobManager.submit(jobManager, recordingJob("light", 200, processed, completed));
+            completed.poll(5, TimeUnit.SECONDS);
+
+            int lightJobStarted = processed.indexOf("light");
+            List<String> sharedHundred = processed.subList(lightJobStarted, lightJobStarted + 100);
+            assertThat(Collections.frequency(sharedHundred, "heavy"), allOf(greaterThanOrEqualTo(70), lessThanOrEqualTo(80)));
+        });
+    }
+
+    @Test
+    public void jobManager_shouldNotRunMoreItemsOfAJobConcurrentlyThanItsQuota() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        Job<Integer, Integer> job = Job.<Integer, Integer>create(WorkSource.fromIterator(IntStream.range(0, 20).iterator()), (item, executor) -> Futures.future(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return 1;
+        }, executor), 0, Integer::sum, completed::add).withMaxConcurrency(2);
+
+        withTestActor(JobManager.props(4), jobManager -> {
+            JobManager.submit(jobManager, job);
+
+            assertThat(completed.poll(5, TimeUnit.SECONDS).getAccumulatedResult(), is(20));
+            assertThat(maxRunning.get(), is(2));
+        });
+    }
+
+    @Test
+    public void jobManager_shouldFailOnlyTheJobWhoseCallbackThrows() throws Exception {
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        Job<Integer, Integer> failing = countingJob(10, completed::add).withProgressReporting(snapshot -> {
+            throw new IllegalStateException("callback failed");
+        }, 1);
+
+        withTestActor(JobManager.props(1), jobManager -> {
+            JobManager.submit(jobManager, failing);
+            ProgressSnapshot<Integer> failed = completed.poll(5, TimeUnit.SECONDS);
+            JobManager.submit(jobManager, countingJob(10, completed::add));
+            ProgressSnapshot<Integer> healthy = completed.poll(5, TimeUnit.SECONDS);
+
+            assertThat(failed.getTerminationReason().get(), is(TerminationReason.CALLBACK_FAILED));
+            assertThat(failed.getFailures().get(IllegalStateException.class), is(1));
+            assertThat(healthy.getTerminationReason().get(), is(TerminationReason.ALL_WORK_DONE));
+            assertThat(healthy.getAccumulatedResult(), is(10));
+        });
+    }
+
+    @Test
+    public void jobManager_shouldRecordAFailure_whenAnItemKeepsCrashingItsWorker() throws Exception {
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        Job<Integer, Integer> job = Job.<Integer, Integer>create(WorkSource.fromIterator(IntStream.range(0, 5).iterator()), (item, executor) -> {
+            if (item == 2) {
+                throw new IllegalStateException("poison");
+            }
+            return Futures.successful(1);
+        }, 0, Integer::sum, completed::add);
+
+        withTestActor(JobManager.props(1), jobManager -> {
+            JobManager.submit(jobManager, job);
+            ProgressSnapshot<Integer> snapshot = completed.poll(5, TimeUnit.SECONDS);
+
+            assertThat(snapshot.getAccumulatedResult(), is(4));
+            assertThat(snapshot.getFailures().get(WorkerLostException.class), is(1));
+        });
+    }
+
+    @Test
+    public void create_shouldThrowNullPointerException_whenBaseResultIsNull() throws Exception {
+        NullPointerException exception = expect(NullPointerException.class,
+                () -> Job.<Integer, Integer>create(WorkSource.fromIterator(IntStream.range(0, 1).iterator()), (item, executor) -> Futures.successful(1), null, Integer::sum, snapshot -> {}));
+        assertThat(exception.getMessage(), containsString("baseResult must not be null"));
+    }
+
+    @Test
+    public void props_shouldThrowIllegalArgumentException_whenNumberOfWorkersProvidedIsNotGreaterThanZero() throws Exception {
+        IllegalArgumentException exception = expect(IllegalArgumentException.class, () -> JobManager.props(0));
+        assertThat(exception.getMessage(), containsString("must be greater than zero"));
+    }
+
+    private Job<Integer, Integer> countingJob(int items, ProgressSnapshotReporter<Integer> onComplete) {
+        return Job.create(WorkSource.fromIterator(IntStream.range(0, items).iterator()), (item, executor) -> Futures.successful(1), 0, Integer::sum, onComplete);
+    }
+
+    private Job<Integer, Integer> recordingJob(String name, int numberOfItems, List<String> processed, BlockingQueue<ProgressSnapshot<Integer>> completed) {
+        List<Integer> items = IntStream.range(0, numberOfItems).boxed().collect(Collectors.toList());
+        return Job.create(WorkSource.fromIterator(items.iterator()), (item, executor) -> {
+            processed.add(name);
+            return Futures.successful(1);
+        }, 0, Integer::sum, completed::add);
+    }
+}
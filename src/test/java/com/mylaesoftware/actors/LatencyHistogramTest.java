@@ -0,0 +1,73 @@
+package com.mylaesoftware.actors;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void getValueAtPercentile_shouldStayWithinTheBucketPrecision() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        assertThat(histogram.getCount(), is(10000L));
+        assertThat(histogram.getMin(), is(1000L));
+        assertThat(histogram.getMax(), is(10000000L));
+        assertThat(histogram.getMean(), is(5000500.0));
+        for (double percentile : new double[]{50.0, 90.0, 99.0, 99.9}) {
+            long exact = (long) (percentile * 100) * 1000L;
+            assertThat(histogram.getValueAtPercentile(percentile), allOf(greaterThanOrEqualTo(exact), lessThanOrEqualTo(exact + exact / 16)));
+        }
+        assertThat(histogram.getValueAtPercentile(100.0), is(10000000L));
+    }
+
+    @Test
+    public void add_shouldMergeCountsOfBothHistograms() throws Exception {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(10L);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(1000000L);
+        }
+
+        LatencyHistogram merged = fast.copy();
+        merged.add(slow);
+
+        assertThat(merged.getCount(), is(100L));
+        assertThat(merged.getValueAtPercentile(90.0), is(10L));
+        assertThat(merged.getValueAtPercentile(91.0), is(1000000L));
+        assertThat(fast.getCount(), is(90L));
+    }
+
+    @Test
+    public void record_shouldNotAllocate() throws Exception {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemoryEnabled());
+        LatencyHistogram histogram = new LatencyHistogram();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (long i = 0; i < 1000000L; i++) {
+            histogram.record(i * 7919L);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertThat(histogram.getCount(), is(1000000L));
+        assertThat(allocated, lessThan(1024L));
+    }
+}
@@ -0,0 +1,184 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Futures;
+import akka.japi.Creator;
+import akka.testkit.JavaTestKit;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MappedRecordSourceTest {
+
+    private static final int BENCHMARK_LINES = 1000000;
+
+    private static ActorSystem _system;
+
+    private final Logger logger = Logger.getLogger("logger");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupAkka() {
+        _system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void teardown() {
+        JavaTestKit.shutdownActorSystem(_system);
+    }
+
+    @Test
+    public void newlineDelimited_shouldSliceRecordsWithoutTheirLineTerminators() throws Exception {
+        Path file = write("alpha\nbeta\r\n\ngamma-delta\nepsilon");
+
+        assertThat(decode(MappedRecordSource.newlineDelimited(file)), is(Arrays.asList("alpha", "beta", "", "gamma-delta", "epsilon")));
+        assertThat(decode(MappedRecordSource.newlineDelimited(file, 12)), is(Arrays.asList("alpha", "beta", "", "gamma-delta", "epsilon")));
+    }
+
+    @Test
+    public void lengthPrefixed_shouldSliceRecordsAcrossMappingWindows() throws Exception {
+        List<String> records = Arrays.asList("a", "", "bbbbbbb", "cc", "ddddddddddd");
+        Path file = writeLengthPrefixed(records);
+
+        assertThat(decode(MappedRecordSource.lengthPrefixed(file, 16)), is(records));
+    }
+
+    @Test
+    public void split_shouldCoverEveryRecordExactlyOnceInSourceOrder() throws Exception {
+        List<String> lines = IntStream.range(0, 1000).mapToObj(i -> "record-" + i + (i % 7 == 0 ? "-with-a-longer-tail" : "")).collect(Collectors.toList());
+        Path newlineDelimited = write(String.join("\n", lines) + "\n");
+        Path lengthPrefixed = writeLengthPrefixed(lines);
+
+        for (MappedRecordSource source : Arrays.asList(MappedRecordSource.newlineDelimited(newlineDelimited, 256), MappedRecordSource.lengthPrefixed(lengthPrefixed, 256))) {
+            List<MappedRecordSource> ranges = source.split(7);
+            assertThat(ranges.size(), is(7));
+            List<String> records = new ArrayList<>();
+            for (MappedRecordSource range : ranges) {
+                records.addAll(decode(range));
+            }
+            assertThat(records, is(lines));
+        }
+    }
+
+    @Test
+    public void pull_shouldFailTheStage_whenARecordIsTruncated() throws Exception {
+        Path file = folder.newFile().toPath();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(100);
+            out.write(new byte[10]);
+        }
+
+        CompletableFuture<List<ByteBuffer>> pulled = MappedRecordSource.lengthPrefixed(file).pull(10).toCompletableFuture();
+        try {
+            pulled.get(1, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+        assertThat(pulled.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void dispatcher_shouldHandWorkersRecordViewsToDecodeLazily() throws Exception {
+        Path file = write(IntStream.rangeClosed(1, 500).mapToObj(Integer::toString).collect(Collectors.joining("\n")));
+        Creator<Worker<ByteBuffer, Integer>> parsingWorker = () -> new Worker<>((record, executor) -> Futures.successful(Integer.parseInt(StandardCharsets.US_ASCII.decode(record).toString())));
+
+        JobHandle<Integer> job = JobHandle.start(_system, onComplete -> WorkDispatcher.props(MappedRecordSource.newlineDelimited(file), 4, parsingWorker, 0, Integer::sum,
+                snapshot -> {}, onComplete, WorkDispatcherSettings.create()));
+
+        assertThat(job.result().toCompletableFuture().get(5, TimeUnit.SECONDS).getAccumulatedResult(), is(125250));
+    }
+
+    @Test
+    public void newlineDelimited_shouldReportThroughputAgainstABufferedReader() throws Exception {
+        Path file = folder.newFile().toPath();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < BENCHMARK_LINES; i++) {
+                writer.write("record-" + i + ",some,comma,separated,payload");
+                writer.newLine();
+            }
+        }
+        double megabytes = Files.size(file) / (1024.0 * 1024.0);
+
+        for (int warmUp = 0; warmUp < 2; warmUp++) {
+            countMapped(file);
+            countBuffered(file);
+        }
+        long start = System.nanoTime();
+        long mappedRecords = countMapped(file);
+        long mappedNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        long bufferedRecords = countBuffered(file);
+        long bufferedNanos = System.nanoTime() - start;
+
+        logger.info(() -> String.format("%.1f MB: mapped %.0f MB/s, buffered reader %.0f MB/s",
+                megabytes, megabytes / (mappedNanos / 1e9), megabytes / (bufferedNanos / 1e9)));
+        assertThat(mappedRecords, is((long) BENCHMARK_LINES));
+        assertThat(bufferedRecords, is((long) BENCHMARK_LINES));
+    }
+
+    private long countMapped(Path file) {
+        long records = 0L;
+        for (ByteBuffer ignored : MappedRecordSource.newlineDelimited(file)) {
+            records++;
+        }
+        return records;
+    }
+
+    private long countBuffered(Path file) throws IOException {
+        long records = 0L;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            while (reader.readLine() != null) {
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private List<String> decode(Iterable<ByteBuffer> records) {
+        List<String> decoded = new ArrayList<>();
+        records.forEach(record -> decoded.add(StandardCharsets.UTF_8.decode(record).toString()));
+        return decoded;
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(folder.newFile().toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path writeLengthPrefixed(List<String> records) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            for (String record : records) {
+                byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+        return file;
+    }
+}
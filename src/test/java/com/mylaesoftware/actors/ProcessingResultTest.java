@@ -0,0 +1,76 @@
+package com.mylaesoftware.actors;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ProcessingResultTest {
+
+    private static final int ITEMS = 1_000_000;
+
+    private final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void longProcessingResult_shouldAccumulateResultsAndCountFailuresByClass() throws Exception {
+        LongProcessingResult processingResult = new LongProcessingResult(0L, Long::sum);
+
+        processingResult.addSuccess(40L);
+        processingResult.addSuccess(Long.valueOf(2L));
+        processingResult.addFailure(new IllegalStateException());
+        processingResult.addFailure(new IllegalStateException());
+        processingResult.addFailure(new RuntimeException());
+
+        assertThat(processingResult.getAccumulatedLong(), is(42L));
+        assertThat(processingResult.getAccumulatedResult(), is(42L));
+        Map<Class<? extends Throwable>, Integer> failures = processingResult.getFailures();
+        assertThat(failures, hasEntry(IllegalStateException.class, 2));
+        assertThat(failures, hasEntry(RuntimeException.class, 1));
+    }
+
+    @Test
+    public void doubleProcessingResult_shouldAccumulateResults() throws Exception {
+        DoubleProcessingResult processingResult = new DoubleProcessingResult(1d, (partial, result) -> partial * result);
+
+        processingResult.addSuccess(2.5d);
+        processingResult.addSuccess(Double.valueOf(4d));
+
+        assertThat(processingResult.getAccumulatedDouble(), is(10d));
+    }
+
+    // covers the collector only: results still arrive boxed in WorkDoneGetMore on the dispatcher path
+    @Test
+    public void longProcessingResult_shouldNotAllocateWhenAccumulatingBoxedResults() throws Exception {
+        Long[] results = new Long[1024];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = (long) i * 1000;
+        }
+        RuntimeException failure = new RuntimeException();
+        LongProcessingResult longResult = new LongProcessingResult(0L, Long::sum);
+        accumulate(longResult, results, failure);
+
+        assertThat(allocatedBytes(() -> accumulate(longResult, results, failure)), lessThan(1024L));
+    }
+
+    private void accumulate(ResultCollector<Long> processingResult, Long[] results, Throwable failure) {
+        for (int i = 0; i < ITEMS; i++) {
+            if (i % 100 == 0) {
+                processingResult.addFailure(failure);
+            } else {
+                processingResult.addSuccess(results[i & (results.length - 1)]);
+            }
+        }
+    }
+
+    private long allocatedBytes(Runnable runnable) {
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        runnable.run();
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+}
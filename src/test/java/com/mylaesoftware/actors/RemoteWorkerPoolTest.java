@@ -0,0 +1,112 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.dispatch.Futures;
+import akka.japi.Creator;
+import akka.pattern.Patterns;
+import akka.testkit.JavaTestKit;
+import com.mylaesoftware.Eventually;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class RemoteWorkerPoolTest implements Eventually {
+
+    private static final int ITEMS = 40;
+
+    private final Config remoteConfig = ConfigFactory.parseString(
+            "akka.actor.provider = \"akka.remote.RemoteActorRefProvider\"\n" +
+            "akka.remote.netty.tcp.hostname = \"127.0.0.1\"\n" +
+            "akka.remote.netty.tcp.port = 0\n").withFallback(ConfigFactory.load());
+
+    private ActorSystem dispatcherNode;
+    private ActorSystem workerNode;
+
+    private final AtomicInteger itemsReceivedByRemoteWorkers = new AtomicInteger();
+
+    private final ProcessingResultProgressReporter<Integer> ignoreProgress = (items, result, errors) -> {};
+
+    @Before
+    public void setupAkka() {
+        dispatcherNode = ActorSystem.create("dispatcher-node", remoteConfig);
+        workerNode = ActorSystem.create("worker-node", remoteConfig);
+    }
+
+    @After
+    public void teardown() {
+        JavaTestKit.shutdownActorSystem(workerNode);
+        JavaTestKit.shutdownActorSystem(dispatcherNode);
+    }
+
+    private Creator<Worker<Integer, Integer>> getSlowLocalWorkerCreator() {
+        ActorSystem system = dispatcherNode;
+        return () -> new Worker<>((item, ec) -> Patterns.after(Duration.create(50, TimeUnit.MILLISECONDS), system.scheduler(), ec, Futures.successful(item)));
+    }
+
+    private String dispatcherPath() {
+        return ((ExtendedActorSystem) dispatcherNode).provider().getDefaultAddress() + "/user/" + WorkDispatcher.NAME;
+    }
+
+    private CompletableFuture<Object[]> startDispatcher() {
+        CompletableFuture<Object[]> completion = new CompletableFuture<>();
+        dispatcherNode.actorOf(WorkDispatcher.props(IntStream.range(0, ITEMS).iterator(), 1, getSlowLocalWorkerCreator(), 0, Integer::sum,
+                ignoreProgress, (items, result, errors) -> completion.complete(new Object[]{items, result, errors.size()})), WorkDispatcher.NAME);
+        return completion;
+    }
+
+    @Test
+    public void remoteWorkers_shouldRegisterWithTheDispatcherAndPullWork() throws Exception {
+        CompletableFuture<Object[]> completion = startDispatcher();
+
+        workerNode.actorOf(RemoteWorkerPool.props(dispatcherPath(), 4, () -> new Worker<Integer, Integer>((item, ec) -> {
+            itemsReceivedByRemoteWorkers.incrementAndGet();
+            return Futures.successful(item);
+        })), RemoteWorkerPool.NAME);
+
+        Object[] outcome = completion.get(20, TimeUnit.SECONDS);
+        assertThat(outcome[0], is((long) ITEMS));
+        assertThat(outcome[1], is(IntStream.range(0, ITEMS).sum()));
+        assertThat(outcome[2], is(0));
+        assertThat(itemsReceivedByRemoteWorkers.get(), greaterThan(0));
+    }
+
+    @Test
+    public void dispatcher_shouldRedispatchWorkInFlight_whenRemoteWorkersLeaveMidJob() throws Exception {
+        CompletableFuture<Object[]> completion = startDispatcher();
+
+        ActorRef remoteWorkerPool = workerNode.actorOf(RemoteWorkerPool.props(dispatcherPath(), 2, () -> new Worker<Integer, Integer>((item, ec) -> {
+            itemsReceivedByRemoteWorkers.incrementAndGet();
+            return Futures.<Integer>promise().future();
+        })), RemoteWorkerPool.NAME);
+
+        eventually(() -> assertThat(itemsReceivedByRemoteWorkers.get(), is(2)));
+        workerNode.stop(remoteWorkerPool);
+
+        Object[] outcome = completion.get(20, TimeUnit.SECONDS);
+        assertThat(outcome[0], is((long) ITEMS));
+        assertThat(outcome[1], is(IntStream.range(0, ITEMS).sum()));
+    }
+
+    @Test
+    public void remoteWorkerPool_shouldStop_whenTheDispatcherCannotBeIdentified() throws Exception {
+        JavaTestKit probe = new JavaTestKit(workerNode);
+        ActorRef remoteWorkerPool = workerNode.actorOf(RemoteWorkerPool.props(dispatcherPath(), 1, 2, () -> new Worker<Integer, Integer>((item, ec) -> Futures.successful(item))));
+        probe.watch(remoteWorkerPool);
+
+        probe.expectTerminated(Duration.create(10, TimeUnit.SECONDS), remoteWorkerPool);
+    }
+}
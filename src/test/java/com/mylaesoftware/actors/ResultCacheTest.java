@@ -0,0 +1,69 @@
+package com.mylaesoftware.actors;
+
+import akka.dispatch.Futures;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ResultCacheTest {
+
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @Test
+    public void computeIfAbsent_shouldCoalesceDuplicatesWhileTheFirstComputationIsInFlight() throws Exception {
+        ResultCache<String, Integer> cache = ResultCache.create(Function.identity(), 16);
+        Promise<Integer> pending = Futures.promise();
+
+        Future<Integer> first = cache.computeIfAbsent("WORK!", () -> count(pending.future()));
+        Future<Integer> duplicate = cache.computeIfAbsent("WORK!", () -> count(Futures.successful(-1)));
+        pending.success(42);
+
+        assertThat(duplicate, is(sameInstance(first)));
+        assertThat(Await.result(duplicate, Duration.create(1, TimeUnit.SECONDS)), is(42));
+        assertThat(computations.get(), is(1));
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(1L));
+    }
+
+    @Test
+    public void computeIfAbsent_shouldEvictTheLeastRecentlyUsedEntry() throws Exception {
+        ResultCache<String, Integer> cache = ResultCache.create(Function.identity(), 2, 1);
+
+        cache.computeIfAbsent("A", () -> count(Futures.successful(1)));
+        cache.computeIfAbsent("B", () -> count(Futures.successful(2)));
+        cache.computeIfAbsent("A", () -> count(Futures.successful(1)));
+        cache.computeIfAbsent("C", () -> count(Futures.successful(3)));
+        cache.computeIfAbsent("A", () -> count(Futures.successful(1)));
+        cache.computeIfAbsent("B", () -> count(Futures.successful(2)));
+
+        assertThat(computations.get(), is(4));
+        assertThat(cache.getEvictions(), is(2L));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void computeIfAbsent_shouldNotCacheFailures() throws Exception {
+        ResultCache<String, Integer> cache = ResultCache.create(Function.identity(), 16);
+
+        cache.computeIfAbsent("FAIL!", () -> count(Futures.failed(new RuntimeException("KABOOM"))));
+        Future<Integer> retried = cache.computeIfAbsent("FAIL!", () -> count(Futures.successful(7)));
+
+        assertThat(Await.result(retried, Duration.create(1, TimeUnit.SECONDS)), is(7));
+        assertThat(computations.get(), is(2));
+    }
+
+    private Future<Integer> count(Future<Integer> result) {
+        computations.incrementAndGet();
+        return result;
+    }
+}
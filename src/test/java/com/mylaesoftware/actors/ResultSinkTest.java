@@ -0,0 +1,54 @@
+package com.mylaesoftware.actors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ResultSinkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void chunked_shouldForwardFullChunksAndTheRemainderOnClose() throws Exception {
+        List<Integer> chunkSizes = new ArrayList<>();
+        ResultSink<String, Integer> sink = ResultSink.chunked(2, records -> {
+            chunkSizes.add(records.size());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        sink.write(Arrays.asList(record(0L, "A", 1), record(1L, "B", 2), record(2L, "C", 3))).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertThat(chunkSizes, is(Collections.singletonList(2)));
+
+        sink.close().toCompletableFuture().get(1, TimeUnit.SECONDS);
+        assertThat(chunkSizes, is(Arrays.asList(2, 1)));
+    }
+
+    @Test
+    public void toFile_shouldWriteOneLinePerRecord() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("results.txt");
+        ResultSink<String, Integer> sink = ResultSink.toFile(file, record -> record.getItem() + "=" + record.getResult(), Runnable::run);
+
+        sink.write(Arrays.asList(record(0L, "A", 1), record(1L, "B", 2))).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        sink.write(Collections.singletonList(record(2L, "C", 3))).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        sink.close().toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+        assertThat(Files.readAllLines(file), is(Arrays.asList("A=1", "B=2", "C=3")));
+    }
+
+    private SinkRecord<String, Integer> record(long workId, String item, Integer result) {
+        return new SinkRecord<>(workId, item, result, null);
+    }
+}
@@ -0,0 +1,27 @@
+package com.mylaesoftware.actors;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SegmentedBitSetTest {
+
+    @Test
+    public void get_shouldReturnTheBitsThatWereSet_whenIndicesExceedTheIntRange() throws Exception {
+        SegmentedBitSet bits = new SegmentedBitSet();
+        long beyondIntRange = Integer.MAX_VALUE + 10L;
+
+        bits.set(3L);
+        bits.set(beyondIntRange);
+        bits.set(Long.MAX_VALUE);
+
+        assertThat(bits.get(3L), is(true));
+        assertThat(bits.get(4L), is(false));
+        assertThat(bits.get(beyondIntRange), is(true));
+        assertThat(bits.get(beyondIntRange - 1), is(false));
+        assertThat(bits.get(beyondIntRange + 64), is(false));
+        assertThat(bits.get(Long.MAX_VALUE), is(true));
+        assertThat(bits.get(3L), is(true));
+    }
+}
@@ -0,0 +1,119 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.dispatch.Futures;
+import akka.japi.Creator;
+import akka.testkit.JavaTestKit;
+import com.mylaesoftware.ActorTesting;
+import com.mylaesoftware.Eventually;
+import com.mylaesoftware.ExceptionTesting;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+
+public class ShardedWorkDispatcherTest implements Eventually, ExceptionTesting, ActorTesting {
+
+    private static ActorSystem _system;
+
+    @Override
+    public ActorSystem getActorSystem() {
+        return _system;
+    }
+
+    @BeforeClass
+    public static void setupAkka() {
+        _system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void teardown() {
+        JavaTestKit.shutdownActorSystem(_system);
+    }
+
+    private final ProcessingResultProgressReporter<Long> ignoreProgress = (items, result, errors) -> {};
+
+    private Creator<Worker<Integer, Long>> getWorkerCreator() {
+        return () -> new Worker<>((item, ec) -> item % 1000 == 0 ? Futures.failed(new IllegalStateException()) : Futures.successful((long) item));
+    }
+
+    @Test
+    public void shardedDispatcher_shouldCombinePartialResultsOfAllShards() throws Exception {
+        CompletableFuture<Object[]> completion = new CompletableFuture<>();
+        CompletableFuture<Map<Class<? extends Throwable>, Integer>> failures = new CompletableFuture<>();
+        Props props = ShardedWorkDispatcher.props(IntStream.range(0, 10000).iterator(), 4, 100, 2, getWorkerCreator(), 0L, Long::sum,
+                ignoreProgress, (items, result, errors) -> {
+                    failures.complete(errors);
+                    completion.complete(new Object[]{items, result});
+                });
+
+        _system.actorOf(props);
+
+        Object[] outcome = completion.get(10, TimeUnit.SECONDS);
+        long expectedSum = IntStream.range(0, 10000).filter(i -> i % 1000 != 0).asLongStream().sum();
+        assertThat(outcome[0], is(10000L));
+        assertThat(outcome[1], is(expectedSum));
+        assertThat(failures.get(10, TimeUnit.SECONDS), hasEntry(IllegalStateException.class, 10));
+    }
+
+    @Test
+    public void shardedDispatcher_shouldApplyTheBaseResultOnlyOnce() throws Exception {
+        CompletableFuture<Object[]> completion = new CompletableFuture<>();
+        Props props = ShardedWorkDispatcher.props(IntStream.range(1, 101).iterator(), 4, 10, 5, 2, getWorkerCreator(), 1000L, Long::sum, Long::sum,
+                ignoreProgress, (items, result, errors) -> completion.complete(new Object[]{items, result}), WorkDispatcherSettings.create());
+
+        _system.actorOf(props);
+
+        Object[] outcome = completion.get(10, TimeUnit.SECONDS);
+        assertThat(outcome[0], is(100L));
+        assertThat(outcome[1], is(1000L + 5050L));
+    }
+
+    @Test
+    public void props_shouldThrowIllegalArgumentException_whenProgressReportEveryIsNotGreaterThanZero() throws Exception {
+
+        IllegalArgumentException exception = expect(IllegalArgumentException.class,
+                () -> ShardedWorkDispatcher.props(IntStream.range(0, 10).iterator(), 2, 5, 0, 1, getWorkerCreator(), 0L, Long::sum, Long::sum,
+                        ignoreProgress, ignoreProgress, WorkDispatcherSettings.create()));
+
+        assertThat(exception.getMessage(), containsString("progressReportEvery"));
+        assertThat(exception.getMessage(), containsString("must be greater than zero"));
+    }
+
+    @Test
+    public void shardedDispatcher_shouldCompleteWhenSomePartitionsAreEmpty() throws Exception {
+        CompletableFuture<Object[]> completion = new CompletableFuture<>();
+        Props props = ShardedWorkDispatcher.props(Arrays.<Iterator<Integer>>asList(Arrays.asList(1, 2, 3).iterator(), Collections.<Integer>emptyIterator()),
+                1, 1, getWorkerCreator(), 0L, Long::sum, Long::sum,
+                ignoreProgress, (items, result, errors) -> completion.complete(new Object[]{items, result}), WorkDispatcherSettings.create());
+
+        _system.actorOf(props);
+
+        Object[] outcome = completion.get(10, TimeUnit.SECONDS);
+        assertThat(outcome[0], is(3L));
+        assertThat(outcome[1], is(6L));
+    }
+
+    @Test
+    public void props_shouldThrowIllegalArgumentException_whenNumberOfShardsIsNotGreaterThanZero() throws Exception {
+
+        IllegalArgumentException exception = expect(IllegalArgumentException.class,
+                () -> ShardedWorkDispatcher.props(IntStream.range(0, 10).iterator(), 0, 1, 1, getWorkerCreator(), 0L, Long::sum, ignoreProgress, ignoreProgress));
+
+        assertThat(exception.getMessage(), containsString("numberOfShards"));
+        assertThat(exception.getMessage(), containsString("must be greater than zero"));
+    }
+}
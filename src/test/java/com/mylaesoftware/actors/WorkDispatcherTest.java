@@ -3,6 +3,7 @@ package com.mylaesoftware.actors;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
+import akka.dispatch.Futures;
 import akka.japi.Creator;
 import akka.testkit.JavaTestKit;
 import akka.testkit.TestActor;
@@ -11,13 +12,30 @@ import com.mylaesoftware.Eventually;
 import com.mylaesoftware.ExceptionTesting;
 import com.mylaesoftware.actors.WorkDispatcher.WorkDoneGetMore;
 import org.junit.*;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.mylaesoftware.actors.WorkDispatcher.*;
 import static org.hamcrest.CoreMatchers.containsString;
@@ -28,6 +46,7 @@ import static org.hamcrest.Matchers.hasEntry;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.*;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @SuppressWarnings({"ThrowableResultOfMethodCallIgnored", "unchecked"})
@@ -51,6 +70,11 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
 
     private final JavaTestKit childrenAutoPilot = new JavaTestKit(_system);
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final FiniteDuration shortly = Duration.create(200, TimeUnit.MILLISECONDS);
+
     @BeforeClass
     public static void setupAkka() {
         _system = ActorSystem.create();
@@ -75,7 +99,7 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
 
     @Test
     public void onWorkDoneGetMore_shouldTellChildNoMoreWork_whenNoItemsLeftToDispatch () throws Exception {
-        setUpAutoPilot(childrenAutoPilot, new WorkDoneGetMore("DONE DEE".hashCode()));
+        setUpAutoPilot(childrenAutoPilot, workId -> new WorkDoneGetMore(workId, "DONE DEE".hashCode()));
         Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock));
 
         withTestActor(props, testActor -> {
@@ -88,7 +112,7 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
     @SuppressWarnings("unchecked")
     @Test
     public void onWorkDoneGetMore_shouldCallOnCompleteCallbackAndCommitSuicide_whenNoItemsLeftToDispatchAndNoMoreChildrenAreWorking() throws Exception {
-        setUpAutoPilot(childrenAutoPilot,  new WorkDoneGetMore("DONE DEE".hashCode()));
+        setUpAutoPilot(childrenAutoPilot, workId -> new WorkDoneGetMore(workId, "DONE DEE".hashCode()));
         Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock));
 
         withTestActor(props, testActor -> {
@@ -106,7 +130,7 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
     @SuppressWarnings("unchecked")
     @Test
     public void onWorkFailedGetMore_shouldCallOnCompleteCallbackAndCommitSuicide_whenNoItemsLeftToDispatchAndNoMoreChildrenAreWorking() throws Exception {
-        setUpAutoPilot(childrenAutoPilot,  new WorkFailedGetMore(new RuntimeException("KABOOM")));
+        setUpAutoPilot(childrenAutoPilot, workId -> new WorkFailedGetMore(workId, new RuntimeException("KABOOM")));
         Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock));
 
         withTestActor(props, testActor -> {
@@ -124,7 +148,7 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
     @Test
     public void onWorkFailedGetMore_shouldCorrectlyUpdateInternalState() throws Exception {
         RuntimeException failure = new RuntimeException("KABOOM");
-        setUpAutoPilot(childrenAutoPilot,  new WorkFailedGetMore(failure));
+        setUpAutoPilot(childrenAutoPilot, workId -> new WorkFailedGetMore(workId, failure));
         Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock));
 
         withTestActor(props, testActor -> {
@@ -141,7 +165,7 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
     @Test
     public void onWorkDoneGetMore_shouldCorrectlyUpdateInternalState() throws Exception {
         int resultOfWorkDone = "DONE DEE".hashCode();
-        setUpAutoPilot(childrenAutoPilot,  new WorkDoneGetMore(resultOfWorkDone));
+        setUpAutoPilot(childrenAutoPilot, workId -> new WorkDoneGetMore(workId, resultOfWorkDone));
         Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock));
 
         withTestActor(props, testActor -> {
@@ -153,6 +177,752 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
         });
     }
 
+    @Test
+    public void onGetWork_shouldDispatchABatchOfItems_whenBatchSizeIsConfigured() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B", "C", "D", "E").iterator();
+        setUpAutoPilot(childrenAutoPilot, workId -> new WorkDoneGetMore(workId, 1));
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, WorkDispatcherSettings.create().withBatchSize(3)));
+
+        withTestActor(props, testActor -> {
+            WorkDispatcher<String, Integer> dispatcher = (WorkDispatcher<String, Integer>) testActor.underlyingActor();
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.WorkBatch<String> firstBatch = childrenAutoPilot.expectMsgClass(Worker.WorkBatch.class);
+            Worker.WorkBatch<String> secondBatch = childrenAutoPilot.expectMsgClass(Worker.WorkBatch.class);
+            assertThat(firstBatch.work, is(Arrays.asList("A", "B", "C")));
+            assertThat(secondBatch.work, is(Arrays.asList("D", "E")));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            assertThat(dispatcher.itemsProcessed, is(5L));
+            assertThat(dispatcher.processingResult.getAccumulatedResult(), is(5));
+        });
+    }
+
+    @Test
+    public void onWorkDoneGetMore_shouldGrowTheBatchSize_whenAdaptiveBatchingIsConfiguredAndItemsAreCheap() throws Exception {
+        Iterator<String> items = IntStream.range(0, 20).mapToObj(Integer::toString).iterator();
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create().withAdaptiveBatchSize(8, Duration.create(80, TimeUnit.MILLISECONDS));
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1, TimeUnit.MILLISECONDS.toNanos(20)));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.WorkBatch.class).workIds.length, is(4));
+        });
+    }
+
+    @Test
+    public void onGetWork_shouldDispatchAsManyItemsAsCreditsAdvertised() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B", "C", "D").iterator();
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(3));
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            assertThat(first.work, is("A"));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("B"));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("C"));
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("D"));
+            childrenAutoPilot.expectNoMsg(shortly);
+        });
+    }
+
+    @Test
+    public void onWorkDoneGetMore_shouldRaiseConcurrencyLimit_whenAdaptiveConcurrencyIsConfigured() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B", "C", "D", "E").iterator();
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create().withAdaptiveConcurrency(1, 2);
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(4));
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            assertThat(first.work, is("A"));
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("B"));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("C"));
+            childrenAutoPilot.expectNoMsg(shortly);
+        });
+    }
+
+    @Test
+    public void onWorkDoneGetMore_shouldRaiseConcurrencyLimitOncePerWindowOfSuccesses() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B", "C", "D", "E", "F", "G").iterator();
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create().withAdaptiveConcurrency(1, 4, Double.MAX_VALUE);
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(8));
+            Worker.Work<String> a = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(a.workId, 1));
+            Worker.Work<String> b = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            Worker.Work<String> c = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(b.workId, 1));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("D"));
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(c.workId, 1));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("E"));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("F"));
+            childrenAutoPilot.expectNoMsg(shortly);
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldPullFromTheWorkSourceAheadOfDemandWithoutBlocking() throws Exception {
+        BlockingQueue<Integer> pulls = new LinkedBlockingQueue<>();
+        BlockingQueue<CompletableFuture<List<String>>> pendingPulls = new LinkedBlockingQueue<>();
+        WorkSource<String> source = maxItems -> {
+            CompletableFuture<List<String>> pull = new CompletableFuture<>();
+            pulls.add(maxItems);
+            pendingPulls.add(pull);
+            return pull;
+        };
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(source, getFailingWorkerCreator(), ProgressSnapshotReporter.of(onCompleteCallbackMock), WorkDispatcherSettings.create().withPrefetch(2)));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(4));
+            assertThat(pulls.poll(1, TimeUnit.SECONDS), is(2));
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            pendingPulls.take().complete(Arrays.asList("A", "B"));
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            Worker.Work<String> second = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            assertThat(first.work, is("A"));
+            assertThat(second.work, is("B"));
+            assertThat(pulls.poll(1, TimeUnit.SECONDS), is(2));
+
+            pendingPulls.take().complete(Collections.emptyList());
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1));
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(second.workId, 1));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            eventually(() -> verify(onCompleteCallbackMock).reportProgress(eq(2L), eq(2), anyMap()));
+            assertThat(pulls.isEmpty(), is(true));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldStopDispatchingWhileTheResultSinkIsBehind() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B", "C").iterator();
+        BlockingQueue<List<SinkRecord<String, Integer>>> written = new LinkedBlockingQueue<>();
+        BlockingQueue<CompletableFuture<Void>> pendingWrites = new LinkedBlockingQueue<>();
+        ResultSink<String, Integer> sink = records -> {
+            CompletableFuture<Void> write = new CompletableFuture<>();
+            written.add(records);
+            pendingWrites.add(write);
+            return write;
+        };
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create().withResultSink(sink, 2);
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(3));
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 7));
+            List<SinkRecord<String, Integer>> records = written.poll(1, TimeUnit.SECONDS);
+            assertThat(records.get(0).getItem(), is("A"));
+            assertThat(records.get(0).getResult(), is(7));
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            pendingWrites.take().complete(null);
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("C"));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldResumeFromCheckpointSkippingCompletedItems() throws Exception {
+        Path checkpoint = folder.getRoot().toPath().resolve("job.checkpoint");
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create()
+                .withCheckpoint(checkpoint, new DefaultPayloadCodec(), 1, Duration.create(1, TimeUnit.SECONDS));
+        Props firstRun = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(Arrays.asList("A", "B", "C").iterator(), getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, settings));
+
+        withTestActor(firstRun, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 5));
+            Worker.Work<String> second = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkFailedGetMore(second.workId, new IllegalStateException("KABOOM")));
+            childrenAutoPilot.expectMsgClass(Worker.Work.class);
+        });
+
+        Props secondRun = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(Arrays.asList("A", "B", "C").iterator(), getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, settings));
+        withTestActor(secondRun, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> remaining = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            assertThat(remaining.work, is("C"));
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(remaining.workId, 1));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            eventually(() -> {
+                verify(onCompleteCallbackMock).reportProgress(eq(3L), eq(6), (Map) argThat(hasEntry(IllegalStateException.class, 1)));
+                assertThat(Files.exists(checkpoint), is(false));
+            });
+        });
+    }
+
+    @Test
+    public void onWorkFailedGetMore_shouldRetryWithBackoffBeforeCountingTheFailure() throws Exception {
+        RuntimeException failure = new RuntimeException("KABOOM");
+        RetryPolicy retryPolicy = RetryPolicy.create(2, Duration.create(10, TimeUnit.MILLISECONDS), Duration.create(20, TimeUnit.MILLISECONDS));
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock,
+                WorkDispatcherSettings.create().withRetryPolicy(retryPolicy)));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> work = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkFailedGetMore(work.workId, failure));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).workId, is(work.workId));
+            childrenAutoPilot.send(testActor, new WorkFailedGetMore(work.workId, failure));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).workId, is(work.workId));
+            verify(onCompleteCallbackMock, times(0)).reportProgress(anyLong(), any(), anyMap());
+
+            childrenAutoPilot.send(testActor, new WorkFailedGetMore(work.workId, failure));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            eventually(() -> verify(onCompleteCallbackMock).reportProgress(eq(1L), eq(0), (Map) argThat(hasEntry(RuntimeException.class, 1))));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldReplaceACrashedWorkerAndRedispatchItsWork() throws Exception {
+        AtomicBoolean crashed = new AtomicBoolean(false);
+        Creator<Worker<String, Integer>> crashingOnceWorker = () -> new Worker<>((item, executor) -> {
+            if (crashed.compareAndSet(false, true)) {
+                throw new IllegalStateException("CRASH");
+            }
+            return Futures.successful(1);
+        });
+        Props props = WorkDispatcher.props(Arrays.asList("A", "B").iterator(), 1, crashingOnceWorker, 0, Integer::sum, progressReportCallback, onCompleteCallbackMock);
+
+        withTestActor(props, testActor -> eventually(() -> {
+            verify(onCompleteCallbackMock).reportProgress(eq(2L), eq(2), eq(Collections.emptyMap()));
+            assertTrue(testActor.isTerminated());
+        }));
+    }
+
+    @Test
+    public void dispatcher_shouldFailWorkThatExceedsTheItemTimeout() throws Exception {
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock,
+                WorkDispatcherSettings.create().withItemTimeout(Duration.create(50, TimeUnit.MILLISECONDS))));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            childrenAutoPilot.expectMsgClass(Worker.Work.class);
+
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            eventually(() -> verify(onCompleteCallbackMock).reportProgress(eq(1L), eq(0), (Map) argThat(hasEntry(WorkTimeoutException.class, 1))));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldReturnTheCreditOfAnExpiredItemToItsWorker() throws Exception {
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(Arrays.asList("A", "B").iterator(), getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock,
+                WorkDispatcherSettings.create().withItemTimeout(Duration.create(50, TimeUnit.MILLISECONDS))));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("A"));
+
+            Worker.Work<String> next = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            assertThat(next.work, is("B"));
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(next.workId, 1));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldReplaceAWorkerStuckOnAnExpiredItem() throws Exception {
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        Creator<Worker<String, Integer>> stuckOnAWorker = () -> new Worker<>((item, executor) -> item.equals("A") ? Futures.<Integer>promise().future() : Futures.successful(1));
+        _system.actorOf(WorkDispatcher.props(WorkSource.fromIterator(Arrays.asList("A", "B", "C").iterator()), 1, stuckOnAWorker, 0, Integer::sum,
+                snapshot -> {}, completed::add, WorkDispatcherSettings.create().withItemTimeout(Duration.create(50, TimeUnit.MILLISECONDS))));
+
+        ProgressSnapshot<Integer> snapshot = completed.poll(5, TimeUnit.SECONDS);
+        assertThat(snapshot.getAccumulatedResult(), is(2));
+        assertThat(snapshot.getFailures().get(WorkTimeoutException.class), is(1));
+    }
+
+    @Test
+    public void dispatcher_shouldHedgeStragglersOntoIdleWorkersAndCountTheFirstResultOnly() throws Exception {
+        JavaTestKit idleWorker = new JavaTestKit(_system);
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock,
+                WorkDispatcherSettings.create().withSpeculativeExecution(Duration.create(50, TimeUnit.MILLISECONDS))));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> straggler = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            idleWorker.send(testActor, new GetWork());
+
+            Worker.Work<String> hedge = idleWorker.expectMsgClass(Worker.Work.class);
+            assertThat(hedge.workId, is(straggler.workId));
+            assertThat(hedge.work, is(straggler.work));
+
+            idleWorker.send(testActor, new WorkDoneGetMore(hedge.workId, 1));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(straggler.workId, 1));
+            eventually(() -> verify(onCompleteCallbackMock).reportProgress(eq(1L), eq(1), anyMap()));
+        });
+    }
+
+    @Test
+    public void onTerminated_shouldKeepTheHedgedCopyInFlight_whenTheOriginalWorkerStops() throws Exception {
+        JavaTestKit originalWorker = new JavaTestKit(_system);
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(itemsToDispatch, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock,
+                WorkDispatcherSettings.create().withSpeculativeExecution(Duration.create(50, TimeUnit.MILLISECONDS))));
+
+        withTestActor(props, testActor -> {
+            originalWorker.send(testActor, new GetWork());
+            Worker.Work<String> straggler = originalWorker.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> hedge = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            assertThat(hedge.workId, is(straggler.workId));
+
+            _system.stop(originalWorker.getRef());
+            childrenAutoPilot.expectNoMsg(Duration.create(200, TimeUnit.MILLISECONDS));
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(hedge.workId, 1));
+
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            eventually(() -> verify(onCompleteCallbackMock).reportProgress(eq(1L), eq(1), anyMap()));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldProduceAnExactResult_whenWorkersAggregateLocally() throws Exception {
+        List<Integer> items = IntStream.rangeClosed(1, 100).boxed().collect(Collectors.toList());
+        WorkerSettings workerSettings = WorkerSettings.create().withCredits(4).withLocalAggregation(Integer::sum, 7, Duration.create(1, TimeUnit.MINUTES));
+        Creator<Worker<Integer, Integer>> aggregatingWorker = () -> new Worker<>((item, executor) -> Futures.successful(item), workerSettings);
+        Props props = WorkDispatcher.props(items.iterator(), 4, aggregatingWorker, 0, Integer::sum, progressReportCallback, onCompleteCallbackMock,
+                WorkDispatcherSettings.create().withLocalAggregation(Integer::sum));
+
+        withTestActor(props, testActor -> eventually(() -> {
+            verify(onCompleteCallbackMock).reportProgress(eq(100L), eq(5050), eq(Collections.emptyMap()));
+            assertTrue(testActor.isTerminated());
+        }));
+    }
+
+    @Test
+    public void onGetWork_shouldFailTheJob_whenAWorkerAggregatesLocallyButTheDispatcherDoesNot() throws Exception {
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        WorkSource<String> source = WorkSource.fromIterator(Arrays.asList("A", "B").iterator());
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(source, getFailingWorkerCreator(), completed::add, WorkDispatcherSettings.create()));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(4, true));
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            ProgressSnapshot<Integer> snapshot = completed.poll(1, TimeUnit.SECONDS);
+            assertThat(snapshot.getItemsProcessed(), is(0L));
+            assertThat(snapshot.getFailures(), hasEntry(IllegalStateException.class, 1));
+            assertThat(snapshot.getTerminationReason().get(), is(TerminationReason.INVALID_WORKER_SETTINGS));
+        });
+    }
+
+    @Test
+    public void validate_shouldRejectLocalAggregationCombinedWithPerItemTracking() throws Exception {
+        WorkDispatcherSettings aggregating = WorkDispatcherSettings.create().withLocalAggregation(Integer::sum);
+        Path checkpoint = folder.getRoot().toPath().resolve("checkpoint");
+
+        for (WorkDispatcherSettings settings : Arrays.asList(
+                aggregating.withSpeculativeExecution(Duration.create(1, TimeUnit.SECONDS)),
+                aggregating.withItemTimeout(Duration.create(1, TimeUnit.SECONDS)),
+                aggregating.withCheckpoint(checkpoint, new DefaultPayloadCodec()),
+                aggregating.withOrderedResults(16))) {
+            IllegalArgumentException exception = expect(IllegalArgumentException.class, settings::validate);
+            assertThat(exception.getMessage(), containsString("localAggregation"));
+        }
+    }
+
+    @Test
+    public void onGetWork_shouldRouteItemsWithTheSameKeyToTheWorkerThatLastHandledIt() throws Exception {
+        JavaTestKit otherWorker = new JavaTestKit(_system);
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        WorkSource<String> source = WorkSource.fromIterator(Arrays.asList("a1", "b1", "a2", "b2").iterator());
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create().withKeyAffinity((String item) -> item.charAt(0));
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(source, getFailingWorkerCreator(), completed::add, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> a1 = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            otherWorker.send(testActor, new GetWork());
+            Worker.Work<String> b1 = otherWorker.expectMsgClass(Worker.Work.class);
+
+            otherWorker.send(testActor, new WorkDoneGetMore(b1.workId, 1));
+            Worker.Work<String> b2 = otherWorker.expectMsgClass(Worker.Work.class);
+            assertThat(b2.work, is("b2"));
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(a1.workId, 1));
+            Worker.Work<String> a2 = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            assertThat(a2.work, is("a2"));
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(a2.workId, 1));
+            otherWorker.send(testActor, new WorkDoneGetMore(b2.workId, 1));
+            ProgressSnapshot<Integer> snapshot = completed.poll(1, TimeUnit.SECONDS);
+            assertThat(snapshot.getItemsProcessed(), is(4L));
+            assertThat(snapshot.getAffinityHits(), is(2L));
+            assertThat(snapshot.getAffinityMisses(), is(0L));
+        });
+    }
+
+    @Test
+    public void onGetWork_shouldDispatchTheMostExpensiveItemThatFitsTheWorkerCostCap_whenACostEstimatorIsConfigured() throws Exception {
+        WorkSource<String> source = WorkSource.fromIterator(Arrays.asList("a", "bbbb", "cc", "ddd").iterator());
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create().withCostEstimator(String::length, 4, 5);
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(source, getFailingWorkerCreator(), snapshot -> {}, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(3));
+            Worker.Work<String> mostExpensive = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            assertThat(mostExpensive.work, is("bbbb"));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("a"));
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(mostExpensive.workId, 1));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("ddd"));
+            childrenAutoPilot.expectNoMsg(shortly);
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldShortenMakespanOfSkewedWork_whenDispatchingTheMostExpensiveItemsFirst() throws Exception {
+        List<Integer> skewedItems = IntStream.rangeClosed(0, 50).mapToObj(i -> i < 50 ? 4 : 200).collect(Collectors.toList());
+        long fifoMakespan = makespanOf(skewedItems, WorkDispatcherSettings.create());
+        long costAwareMakespan = makespanOf(skewedItems, WorkDispatcherSettings.create().withCostEstimator((Integer millis) -> millis, 64));
+
+        assertThat(costAwareMakespan < fifoMakespan * 0.85, is(true));
+    }
+
+    private long makespanOf(List<Integer> sleepMillis, WorkDispatcherSettings settings) throws Exception {
+        BlockingQueue<Long> completedAt = new LinkedBlockingQueue<>();
+        Creator<Worker<Integer, Integer>> sleepingWorker = () -> new Worker<>((millis, executor) -> Futures.future(() -> {
+            Thread.sleep(millis);
+            return 1;
+        }, executor));
+        long start = System.nanoTime();
+        _system.actorOf(WorkDispatcher.props(WorkSource.fromIterator(sleepMillis.iterator()), 2, sleepingWorker, 0, Integer::sum,
+                snapshot -> {}, snapshot -> completedAt.add(System.nanoTime()), settings));
+        return TimeUnit.NANOSECONDS.toMillis(completedAt.poll(5, TimeUnit.SECONDS) - start);
+    }
+
+    @Test
+    public void onGetWork_shouldNotDispatchBeyondTheItemLimitAndCompleteOnceItIsReached() throws Exception {
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        WorkSource<String> source = WorkSource.fromIterator(Arrays.asList("A", "B", "C", "D").iterator());
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(source, getFailingWorkerCreator(), completed::add,
+                WorkDispatcherSettings.create().withItemLimit(2)));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(4));
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            Worker.Work<String> second = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1));
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(second.workId, 1));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            ProgressSnapshot<Integer> snapshot = completed.poll(1, TimeUnit.SECONDS);
+            assertThat(snapshot.getItemsProcessed(), is(2L));
+            assertThat(snapshot.getTerminationReason().get(), is(TerminationReason.ITEM_LIMIT_REACHED));
+        });
+    }
+
+    @Test
+    public void onGetWork_shouldHoldBackWorkUntilTokensAreRefilled_whenRateLimitIsConfigured() throws Exception {
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        WorkSource<String> source = WorkSource.fromIterator(Arrays.asList("A", "B", "C").iterator());
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(source, getFailingWorkerCreator(), completed::add,
+                WorkDispatcherSettings.create().withRateLimit(5.0, 2)));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(3));
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            Worker.Work<String> second = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.expectNoMsg(Duration.create(100, TimeUnit.MILLISECONDS));
+            Worker.Work<String> third = childrenAutoPilot.expectMsgClass(Duration.create(1, TimeUnit.SECONDS), Worker.Work.class);
+            assertThat(third.work, is("C"));
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1));
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(second.workId, 1));
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(third.workId, 1));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            ProgressSnapshot<Integer> snapshot = completed.poll(1, TimeUnit.SECONDS);
+            assertThat(snapshot.getAccumulatedResult(), is(3));
+            assertThat(snapshot.getRateLimitWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(100), is(true));
+        });
+    }
+
+    @Test
+    public void onGetMetrics_shouldReportLatenciesThroughputAndWorkerUtilisation() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B").iterator();
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock));
+        long processingNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(2));
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1, processingNanos));
+
+            childrenAutoPilot.send(testActor, new GetMetrics());
+            DispatcherMetrics metrics = childrenAutoPilot.expectMsgClass(DispatcherMetrics.class);
+            assertThat(metrics.getItemsProcessed(), is(1L));
+            assertThat(metrics.getItemsPerSecond() > 0.0, is(true));
+            assertThat(metrics.getProcessingLatency().getCount(), is(1L));
+            assertThat(metrics.getProcessingLatency().getValueAtPercentile(50.0), is(processingNanos));
+            assertThat(metrics.getRoundTripLatency().getCount(), is(1L));
+            assertThat(metrics.getWorkInFlight(), is(1));
+            assertThat(metrics.getWorkers(), is(1));
+            assertThat(metrics.getIdleWorkers(), is(0));
+            assertThat(metrics.getMailboxDepth() >= 0, is(true));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldPublishMetricsThroughJmxUntilItStops() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        JmxMetricsExporter jmx = JmxMetricsExporter.register(mBeanServer, "dispatcher-test");
+        BlockingQueue<Object> itemsProcessedAttribute = new LinkedBlockingQueue<>();
+        BlockingQueue<DispatcherMetrics> exported = new LinkedBlockingQueue<>();
+        MetricsExporter exporter = new MetricsExporter() {
+            @Override
+            public void export(DispatcherMetrics metrics) {
+                jmx.export(metrics);
+                exported.add(metrics);
+                try {
+                    itemsProcessedAttribute.add(mBeanServer.getAttribute(jmx.getObjectName(), "ItemsProcessed"));
+                } catch (Exception e) {
+                    itemsProcessedAttribute.add(e);
+                }
+            }
+
+            @Override
+            public void close() {
+                jmx.close();
+            }
+        };
+        Creator<Worker<Integer, Integer>> failingEveryTenthItem = () -> new Worker<>((item, executor) ->
+                item % 10 == 0 ? Futures.failed(new IllegalStateException("KABOOM")) : Futures.successful(1));
+
+        JobHandle<Integer> job = JobHandle.start(_system, onComplete -> WorkDispatcher.props(WorkSource.fromIterator(IntStream.range(0, 100).iterator()), 2,
+                failingEveryTenthItem, 0, Integer::sum, snapshot -> {}, onComplete,
+                WorkDispatcherSettings.create().withMetricsExporter(exporter, Duration.create(1, TimeUnit.MINUTES))));
+
+        assertThat(job.result().toCompletableFuture().get(5, TimeUnit.SECONDS).getAccumulatedResult(), is(90));
+        DispatcherMetrics metrics = exported.poll(1, TimeUnit.SECONDS);
+        assertThat(metrics.getItemsProcessed(), is(100L));
+        assertThat(metrics.getProcessingLatency().getCount(), is(100L));
+        assertThat(metrics.getFailuresPerSecond().get(IllegalStateException.class) > 0.0, is(true));
+        assertThat(metrics.getIdleWorkers(), is(metrics.getWorkers()));
+        assertThat(itemsProcessedAttribute.poll(1, TimeUnit.SECONDS), is(100L));
+        eventually(() -> assertThat(mBeanServer.isRegistered(jmx.getObjectName()), is(false)));
+    }
+
+    @Test
+    public void onGetWork_shouldDispatchItemsOfOtherKeys_whenOneKeyIsRateLimited() throws Exception {
+        Iterator<String> items = Arrays.asList("a1", "a2", "b1", "b2").iterator();
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create().withRateLimitPerKey(1.0, 1, (String item) -> item.charAt(0));
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(4));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("a1"));
+            assertThat(childrenAutoPilot.expectMsgClass(Worker.Work.class).work, is("b1"));
+            childrenAutoPilot.expectNoMsg(shortly);
+        });
+    }
+
+    @Test
+    public void onWorkFailedGetMore_shouldCompleteImmediately_whenMaxFailuresIsExceededAndWorkInFlightIsCancelled() throws Exception {
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        WorkSource<String> source = WorkSource.fromIterator(Arrays.asList("A", "B", "C").iterator());
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create()
+                .withMaxFailures(IllegalStateException.class, 0)
+                .withCancelWorkInFlightOnTermination(true);
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(source, getFailingWorkerCreator(), completed::add, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(2));
+            Worker.Work<String> failing = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.expectMsgClass(Worker.Work.class);
+
+            childrenAutoPilot.send(testActor, new WorkFailedGetMore(failing.workId, new IllegalStateException("INVALID")));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            ProgressSnapshot<Integer> snapshot = completed.poll(1, TimeUnit.SECONDS);
+            assertThat(snapshot.getItemsProcessed(), is(1L));
+            assertThat(snapshot.getFailures(), hasEntry(IllegalStateException.class, 1));
+            assertThat(snapshot.getTerminationReason().get(), is(TerminationReason.MAX_FAILURES_EXCEEDED));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldStopPullingFromTheSource_whenTheAccumulatedResultMeetsTheStopCondition() throws Exception {
+        BlockingQueue<ProgressSnapshot<Integer>> completed = new LinkedBlockingQueue<>();
+        Creator<Worker<Integer, Integer>> identityWorker = () -> new Worker<>((item, executor) -> Futures.successful(item));
+        Props props = WorkDispatcher.props(WorkSource.fromIterator(IntStream.range(0, 1000000).iterator()), 2, identityWorker, 0, Integer::sum,
+                snapshot -> {}, completed::add, WorkDispatcherSettings.create().withStopWhen((Integer sum) -> sum >= 100));
+
+        withTestActor(props, testActor -> {
+            ProgressSnapshot<Integer> snapshot = completed.poll(5, TimeUnit.SECONDS);
+            assertThat(snapshot.getAccumulatedResult() >= 100, is(true));
+            assertThat(snapshot.getItemsProcessed() < 1000, is(true));
+            assertThat(snapshot.getTerminationReason().get(), is(TerminationReason.RESULT_CONDITION_MET));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldReleaseResultsInSourceOrderAndHoldBackWork_whenTheReorderBufferIsFull() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B", "C").iterator();
+        BlockingQueue<SinkRecord<String, Integer>> written = new LinkedBlockingQueue<>();
+        ResultSink<String, Integer> sink = records -> {
+            written.addAll(records);
+            return CompletableFuture.completedFuture(null);
+        };
+        WorkDispatcherSettings settings = WorkDispatcherSettings.create().withOrderedResults(2).withResultSink(sink, 10);
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, settings));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(3));
+            Worker.Work<String> headOfLine = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            Worker.Work<String> second = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.expectNoMsg(shortly);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(second.workId, 2));
+            childrenAutoPilot.expectNoMsg(shortly);
+            assertThat(written.isEmpty(), is(true));
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(headOfLine.workId, 1));
+            Worker.Work<String> third = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(third.workId, 3));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+
+            List<String> releasedItems = IntStream.range(0, 3).mapToObj(i -> written.poll().getItem()).collect(Collectors.toList());
+            assertThat(releasedItems, is(Arrays.asList("A", "B", "C")));
+        });
+    }
+
+    @Test
+    public void onWorkDoneGetMore_shouldNotCompleteUntilAllWorkInFlightIsDone() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B").iterator();
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork(2));
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            Worker.Work<String> second = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1));
+            childrenAutoPilot.expectNoMsg(shortly);
+            assertThat(testActor.isTerminated(), is(false));
+
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(second.workId, 1));
+            childrenAutoPilot.expectMsgClass(Worker.NoMoreWork.class);
+            eventually(() -> {
+                verify(onCompleteCallbackMock).reportProgress(eq(2L), eq(2), anyMap());
+                assertTrue(testActor.isTerminated());
+            });
+        });
+    }
+
+    @Test
+    public void onWorkDoneGetMore_shouldReportProgressOnlyEveryConfiguredNumberOfItems() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B", "C", "D", "E").iterator();
+        setUpAutoPilot(childrenAutoPilot, workId -> new WorkDoneGetMore(workId, 1));
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock, WorkDispatcherSettings.create().withProgressReportEvery(2)));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            eventually(() -> {
+                verify(onCompleteCallbackMock).reportProgress(eq(5L), eq(5), anyMap());
+                verify(progressReportCallback).reportProgress(eq(2L), eq(2), anyMap());
+                verify(progressReportCallback).reportProgress(eq(4L), eq(4), anyMap());
+                verify(progressReportCallback, times(2)).reportProgress(anyLong(), any(), anyMap());
+            });
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldReportAnImmutableSnapshotOnEveryTick_whenProgressReportIntervalIsConfigured() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B").iterator();
+        RuntimeException failure = new RuntimeException("KABOOM");
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), progressReportCallback, onCompleteCallbackMock,
+                WorkDispatcherSettings.create().withProgressReportInterval(Duration.create(50, TimeUnit.MILLISECONDS))));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> work = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkFailedGetMore(work.workId, failure));
+            childrenAutoPilot.expectMsgClass(Worker.Work.class);
+
+            ArgumentCaptor<Map> failuresCaptor = ArgumentCaptor.forClass(Map.class);
+            eventually(() -> verify(progressReportCallback).reportProgress(eq(1L), eq(0), failuresCaptor.capture()));
+            Map<Class<? extends Throwable>, Integer> failures = failuresCaptor.getValue();
+            assertThat(failures, hasEntry(RuntimeException.class, 1));
+            expect(UnsupportedOperationException.class, () -> failures.put(IllegalStateException.class, 1));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldReportProgressFromTheConfiguredDispatcher() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B").iterator();
+        BlockingQueue<String> reportingThreads = new LinkedBlockingQueue<>();
+        ProcessingResultProgressReporter<Integer> threadRecordingReporter = (processed, result, errors) -> reportingThreads.add(Thread.currentThread().getName());
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), threadRecordingReporter, onCompleteCallbackMock,
+                WorkDispatcherSettings.create().withProgressReportEvery(1).withProgressReportDispatcher("progress-report-dispatcher")));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> work = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(work.workId, 1));
+
+            assertThat(reportingThreads.poll(3, TimeUnit.SECONDS), containsString("progress-report-dispatcher"));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldStillReportCompletion_whenTheProgressCallbackThrowsOnTheConfiguredDispatcher() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B").iterator();
+        BlockingQueue<Long> completions = new LinkedBlockingQueue<>();
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), (processed, result, errors) -> {
+            throw new IllegalStateException("KABOOM");
+        }, (processed, result, errors) -> completions.add(processed), WorkDispatcherSettings.create().withProgressReportDispatcher("progress-report-dispatcher")));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1));
+            Worker.Work<String> second = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(second.workId, 1));
+
+            assertThat(completions.poll(3, TimeUnit.SECONDS), is(2L));
+            eventually(() -> assertTrue(testActor.isTerminated()));
+        });
+    }
+
+    @Test
+    public void dispatcher_shouldReportCompletionAfterQueuedProgress_whenReportingFromTheConfiguredDispatcher() throws Exception {
+        Iterator<String> items = Arrays.asList("A", "B").iterator();
+        BlockingQueue<Long> reports = new LinkedBlockingQueue<>();
+        Props props = Props.create(TestWorkDispatcher.class, () -> new TestWorkDispatcher(items, getFailingWorkerCreator(), (processed, result, errors) -> reports.add(processed),
+                (processed, result, errors) -> reports.add(-processed), WorkDispatcherSettings.create().withProgressReportEvery(1).withProgressReportDispatcher("progress-report-dispatcher")));
+
+        withTestActor(props, testActor -> {
+            childrenAutoPilot.send(testActor, new GetWork());
+            Worker.Work<String> first = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(first.workId, 1));
+            Worker.Work<String> second = childrenAutoPilot.expectMsgClass(Worker.Work.class);
+            childrenAutoPilot.send(testActor, new WorkDoneGetMore(second.workId, 1));
+
+            assertThat(reports.poll(3, TimeUnit.SECONDS), is(1L));
+            assertThat(reports.poll(3, TimeUnit.SECONDS), is(2L));
+            assertThat(reports.poll(3, TimeUnit.SECONDS), is(-2L));
+            eventually(() -> assertTrue(testActor.isTerminated()));
+        });
+    }
+
     @Test
     public void props_shouldThrowIllegalArgumentException_whenItemsToDispatchIsEmpty() throws Exception {
 
@@ -174,7 +944,7 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
     }
 
 
-    private JavaTestKit setUpAutoPilot(JavaTestKit childrenAutoPilot, WorkDispatcher.GetWork replyToDispatcher) {
+    private JavaTestKit setUpAutoPilot(JavaTestKit childrenAutoPilot, Function<Long, WorkDispatcher.GetWork> replyToDispatcher) {
         return new JavaTestKit(_system){{
             childrenAutoPilot.setAutoPilot(new TestActor.AutoPilot() {
                 @Override
@@ -182,19 +952,45 @@ public class WorkDispatcherTest implements Eventually, ExceptionTesting, ActorTe
                     if (msg instanceof Worker.NoMoreWork){
                         return noAutoPilot();
                     }
-                    sender.tell(replyToDispatcher, childrenAutoPilot.getRef());
+                    if (msg instanceof Worker.WorkBatch) {
+                        sender.tell(batchReply(((Worker.WorkBatch) msg).workIds, replyToDispatcher), childrenAutoPilot.getRef());
+                    } else {
+                        sender.tell(replyToDispatcher.apply(((Worker.Work) msg).workId), childrenAutoPilot.getRef());
+                    }
                     return keepRunning();
                 }
             });
         }};
     }
 
+    private BatchDoneGetMore batchReply(long[] workIds, Function<Long, WorkDispatcher.GetWork> replyToDispatcher) {
+        Object[] results = new Object[workIds.length];
+        Throwable[] failures = new Throwable[workIds.length];
+        for (int i = 0; i < workIds.length; i++) {
+            WorkDispatcher.GetWork reply = replyToDispatcher.apply(workIds[i]);
+            if (reply instanceof WorkDoneGetMore) {
+                results[i] = ((WorkDoneGetMore) reply).resultOfWorkDone;
+            } else {
+                failures[i] = ((WorkFailedGetMore) reply).failureOfWorkDone;
+            }
+        }
+        return new BatchDoneGetMore(workIds, results, failures, new long[workIds.length]);
+    }
+
     class TestWorkDispatcher extends WorkDispatcher<String, Integer>{
 
         TestWorkDispatcher(Iterator<String> itemsToDispatch, Creator<Worker<String, Integer>> workerCreator, ProcessingResultProgressReporter<Integer> progressReportCallback, ProcessingResultProgressReporter<Integer> onCompleteCallback) {
             super(itemsToDispatch, 1, workerCreator, 0, Integer::sum, progressReportCallback, onCompleteCallback);
         }
 
+        TestWorkDispatcher(Iterator<String> itemsToDispatch, Creator<Worker<String, Integer>> workerCreator, ProcessingResultProgressReporter<Integer> progressReportCallback, ProcessingResultProgressReporter<Integer> onCompleteCallback, WorkDispatcherSettings settings) {
+            super(itemsToDispatch, 1, workerCreator, 0, Integer::sum, progressReportCallback, onCompleteCallback, settings);
+        }
+
+        TestWorkDispatcher(WorkSource<String> workSource, Creator<Worker<String, Integer>> workerCreator, ProgressSnapshotReporter<Integer> onCompleteCallback, WorkDispatcherSettings settings) {
+            super(workSource, 1, workerCreator, new ProcessingResult<>(0, Integer::sum), snapshot -> {}, onCompleteCallback, settings);
+        }
+
         @Override
         void spawnChildren(Creator<Worker<String, Integer>> workerCreator) {
 
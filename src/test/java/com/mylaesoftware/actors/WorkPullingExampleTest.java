@@ -1,12 +1,14 @@
 package com.mylaesoftware.actors;
 
 import akka.actor.ActorSystem;
-import akka.actor.Props;
 import akka.dispatch.Futures;
 import akka.japi.Creator;
+import akka.testkit.JavaTestKit;
 import com.typesafe.config.ConfigFactory;
 import org.junit.Test;
+import scala.concurrent.duration.Duration;
 
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import java.util.stream.IntStream;
 
@@ -16,36 +18,38 @@ public class WorkPullingExampleTest {
     private Long counter = System.currentTimeMillis();
 
     ProcessingResultProgressReporter<Integer> progressReporter = (items, partialResult, errors) -> {
-        if (items % 1000 == 0) {
-            long now = System.currentTimeMillis();
-            long elapsed = (now - counter);
-            counter = now;
-            logger.info(() -> "Batch processed in: " + elapsed + " millis items: " + items + " result accumulated: " + partialResult + " errors: " + errors.size());
-        }
+        long now = System.currentTimeMillis();
+        long elapsed = (now - counter);
+        counter = now;
+        logger.info(() -> "Progress reported after: " + elapsed + " millis items: " + items + " result accumulated: " + partialResult + " errors: " + errors.size());
     };
 
     @Test
     public void shouldRunWorkPullingExample() throws Exception {
         ActorSystem _system = ActorSystem.create("example", ConfigFactory.load());
 
-        IntStream work = IntStream.range(0, 1000000);
+        IntStream work = IntStream.range(0, 20000);
 
-        Props dispatcherProps = WorkDispatcher.props(work.iterator(), 512, getWorkerCreator(), 0, Integer::sum, progressReporter, progressReporter);
-        _system.actorOf(dispatcherProps, WorkDispatcher.NAME);
+        JobHandle<Integer> job = JobHandle.start(_system, onComplete -> WorkDispatcher.props(work.iterator(), 32, getWorkerCreator(), 0, Integer::sum,
+                ProgressSnapshotReporter.of(progressReporter), onComplete,
+                WorkDispatcherSettings.create().withProgressReportInterval(Duration.create(1, TimeUnit.SECONDS)).withWorkerDispatcher("work-pulling.worker-dispatcher"))
+                .withDispatcher("work-pulling.dispatcher"));
 
-        Thread.sleep(Long.MAX_VALUE);
+        ProgressSnapshot<Integer> result = job.result().toCompletableFuture().get();
+        logger.info(() -> "Job finished: " + result);
+        JavaTestKit.shutdownActorSystem(_system);
     }
 
     private Creator<Worker<Integer, Integer>> getWorkerCreator() {
         return () -> new Worker<>((index, ec) -> Futures.future(() -> {
 
             try {
-                Thread.sleep((long) (Math.random() * 100));
+                Thread.sleep((long) (Math.random() * 20));
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
             return 1;
-        }, ec));
+        }, ec), WorkerSettings.create().withCredits(16).withExecutionDispatcher("work-pulling.virtual-thread-dispatcher"));
     }
 
 }
@@ -0,0 +1,172 @@
+package com.mylaesoftware.actors;
+
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.serialization.JavaSerializer;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
+import akka.testkit.JavaTestKit;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.lessThan;
+
+public class WorkPullingSerializerTest {
+
+    private static final int ITERATIONS = 2000;
+
+    private static ActorSystem _system;
+
+    private final Logger logger = Logger.getLogger("logger");
+
+    @BeforeClass
+    public static void setupAkka() {
+        _system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void teardown() {
+        JavaTestKit.shutdownActorSystem(_system);
+    }
+
+    private final Serialization serialization = SerializationExtension.get(_system);
+
+    private <M> M roundTrip(M message) {
+        Serializer serializer = serialization.findSerializerFor(message);
+        assertThat(serializer, instanceOf(WorkPullingSerializer.class));
+        return (M) serialization.deserialize(serialization.serialize(message).get(), serializer.identifier(), ((WorkPullingSerializer) serializer).manifest(message)).get();
+    }
+
+    @Test
+    public void serializer_shouldRoundTripWorkMessages() throws Exception {
+        Worker.Work<String> work = roundTrip(new Worker.Work<>(7L, "WORK!"));
+        assertThat(work.workId, is(7L));
+        assertThat(work.work, is("WORK!"));
+
+        Worker.WorkBatch<Object> batch = roundTrip(new Worker.WorkBatch<>(new long[]{1L, 2L, 3L}, Arrays.asList(1, "two", 3L)));
+        assertThat(batch.workIds, is(new long[]{1L, 2L, 3L}));
+        assertThat(batch.work, is(Arrays.asList(1, "two", 3L)));
+
+        assertThat(roundTrip(new Worker.NoMoreWork()), instanceOf(Worker.NoMoreWork.class));
+        WorkDispatcher.GetWork getWork = roundTrip(new WorkDispatcher.GetWork(16, true));
+        assertThat(getWork.credits, is(16));
+        assertThat(getWork.localAggregation, is(true));
+    }
+
+    @Test
+    public void serializer_shouldRoundTripResultMessages() throws Exception {
+        WorkDispatcher.WorkDoneGetMore done = roundTrip(new WorkDispatcher.WorkDoneGetMore(3L, answer(), 250L));
+        assertThat(done.workId, is(3L));
+        assertThat(done.resultOfWorkDone, is(answer()));
+        assertThat(done.processingNanos, is(250L));
+
+        WorkDispatcher.WorkFailedGetMore failed = roundTrip(new WorkDispatcher.WorkFailedGetMore(4L, new IllegalStateException("KABOOM")));
+        assertThat(failed.workId, is(4L));
+        assertThat(failed.processingNanos, is(-1L));
+        assertThat(failed.failureOfWorkDone, instanceOf(IllegalStateException.class));
+        assertThat(failed.failureOfWorkDone.getMessage(), is("KABOOM"));
+        assertThat(failed.failureOfWorkDone.getStackTrace(), emptyArray());
+
+        WorkDispatcher.BatchDoneGetMore batchDone = roundTrip(new WorkDispatcher.BatchDoneGetMore(new long[]{5L, 6L}, new Object[]{42, null}, new Throwable[]{null, new UnknownFailure()}, new long[]{1000L, 2000L}));
+        assertThat(batchDone.workIds, is(new long[]{5L, 6L}));
+        assertThat(batchDone.processingNanos, is(new long[]{1000L, 2000L}));
+        assertThat(batchDone.resultsOfWorkDone[0], is(42));
+        assertThat(batchDone.failuresOfWorkDone[0], nullValue());
+        assertThat(batchDone.failuresOfWorkDone[1], instanceOf(RemoteWorkFailure.class));
+        assertThat(((RemoteWorkFailure) batchDone.failuresOfWorkDone[1]).getFailureClassName(), is(UnknownFailure.class.getName()));
+    }
+
+    @Test
+    public void serializer_shouldNotInstantiateFailureClassesThatAreNotAllowed() throws Exception {
+        WorkDispatcher.WorkFailedGetMore failed = roundTrip(new WorkDispatcher.WorkFailedGetMore(4L, new UnlistedFailure("KABOOM")));
+
+        assertThat(failed.failureOfWorkDone, instanceOf(RemoteWorkFailure.class));
+        assertThat(((RemoteWorkFailure) failed.failureOfWorkDone).getFailureClassName(), is(UnlistedFailure.class.getName()));
+        assertThat(failed.failureOfWorkDone.getMessage(), is(UnlistedFailure.class.getName() + ": KABOOM"));
+    }
+
+    @Test
+    public void serializer_shouldRoundTripStringsLongerThan64Kilobytes() throws Exception {
+        char[] chars = new char[100000];
+        Arrays.fill(chars, '\u00e9');
+        String work = new String(chars);
+
+        assertThat(roundTrip(new Worker.Work<>(1L, work)).work, is(work));
+    }
+
+    @Test
+    public void serializer_shouldRoundTripLocalAggregationMessages() throws Exception {
+        WorkDispatcher.WorkAggregatedGetMore aggregated = roundTrip(new WorkDispatcher.WorkAggregatedGetMore(8L, 500L));
+        assertThat(aggregated.workId, is(8L));
+        assertThat(aggregated.processingNanos, is(500L));
+        assertThat(roundTrip(new Worker.FlushPartialResult()), instanceOf(Worker.FlushPartialResult.class));
+
+        WorkDispatcher.PartialResult partial = roundTrip(new WorkDispatcher.PartialResult(answer(), 3));
+        assertThat(partial.partialResult, is(answer()));
+        assertThat(partial.itemsAggregated, is(3));
+
+        WorkDispatcher.BatchDoneGetMore batchDone = roundTrip(new WorkDispatcher.BatchDoneGetMore(new long[]{9L}, new Object[]{null}, new Throwable[]{null}, new long[1]));
+        assertThat(batchDone.resultsOfWorkDone[0], nullValue());
+        assertThat(batchDone.failuresOfWorkDone[0], nullValue());
+    }
+
+    @Test
+    public void serializer_shouldProduceSmallerAndFasterMessagesThanJavaSerialization() throws Exception {
+        WorkPullingSerializer workPullingSerializer = new WorkPullingSerializer((ExtendedActorSystem) _system);
+        JavaSerializer javaSerializer = new JavaSerializer((ExtendedActorSystem) _system);
+        Object[] messages = {
+                new Worker.Work<>(123456L, 42),
+                new WorkDispatcher.WorkDoneGetMore(123456L, 42),
+                new WorkDispatcher.WorkFailedGetMore(123456L, new IllegalStateException("KABOOM")),
+                new WorkDispatcher.BatchDoneGetMore(new long[]{1L, 2L, 3L, 4L}, new Object[]{1, 2, 3, null}, new Throwable[]{null, null, null, new RuntimeException()}, new long[]{10L, 10L, 10L, 10L})
+        };
+
+        for (Object message : messages) {
+            String manifest = workPullingSerializer.manifest(message);
+            long[] workPulling = measure(() -> workPullingSerializer.fromBinary(workPullingSerializer.toBinary(message), manifest), workPullingSerializer.toBinary(message).length);
+            long[] java = measure(() -> javaSerializer.fromBinary(javaSerializer.toBinary(message)), javaSerializer.toBinary(message).length);
+
+            logger.info(() -> String.format("%s: work-pulling %d bytes %d ns, java %d bytes %d ns",
+                    message.getClass().getSimpleName(), workPulling[0], workPulling[1], java[0], java[1]));
+            assertThat(workPulling[0], lessThan(java[0]));
+        }
+    }
+
+    private long[] measure(Runnable roundTrip, int bytes) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            roundTrip.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            roundTrip.run();
+        }
+        return new long[]{bytes, (System.nanoTime() - start) / ITERATIONS};
+    }
+
+    private static Map<String, Integer> answer() {
+        return Collections.singletonMap("answer", 42);
+    }
+
+    public static class UnlistedFailure extends RuntimeException {
+        public UnlistedFailure(String message) {
+            super(message);
+        }
+    }
+
+    static class UnknownFailure extends RuntimeException {
+        private UnknownFailure() {
+        }
+    }
+}
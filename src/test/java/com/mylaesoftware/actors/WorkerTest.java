@@ -7,7 +7,10 @@ import akka.testkit.JavaTestKit;
 import akka.testkit.TestProbe;
 import com.mylaesoftware.ActorTesting;
 import com.mylaesoftware.Eventually;
+import com.mylaesoftware.actors.WorkDispatcher.BatchDoneGetMore;
 import com.mylaesoftware.actors.WorkDispatcher.GetWork;
+import com.mylaesoftware.actors.WorkDispatcher.PartialResult;
+import com.mylaesoftware.actors.WorkDispatcher.WorkAggregatedGetMore;
 import com.mylaesoftware.actors.WorkDispatcher.WorkDoneGetMore;
 import com.mylaesoftware.actors.WorkDispatcher.WorkFailedGetMore;
 import org.junit.AfterClass;
@@ -15,9 +18,15 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import scala.concurrent.ExecutionContextExecutor;
 import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import scala.concurrent.duration.Duration;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.stream.IntStream;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -64,15 +73,34 @@ public class WorkerTest implements Eventually, ActorTesting {
         withTestActor(props, dispatcherProbe.ref(),  testActor -> {
             dispatcherProbe.expectMsgClass(GetWork.class);
 
-            testActor.tell(new Worker.Work<>("WORK!"), null);
+            testActor.tell(new Worker.Work<>(42L, "WORK!"), null);
 
             WorkDoneGetMore moreWork = dispatcherProbe.expectMsgClass(WorkDoneGetMore.class);
 
+            assertThat(moreWork.workId, is(42L));
             assertThat(moreWork.resultOfWorkDone, is("WORKED"));
 
         });
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void onWork_workerShouldStillReportTheResult_whenItCompletesAfterTheWorkerStopped() throws Exception {
+        Promise<String> pending = Futures.promise();
+        Props props = Props.create(Worker.class, (BiFunction<String, ExecutionContextExecutor, Future<? extends String>>) (work, ec) -> pending.future());
+        withTestActor(props, dispatcherProbe.ref(), testActor -> {
+            dispatcherProbe.expectMsgClass(GetWork.class);
+            testActor.tell(new Worker.Work<>(42L, "WORK!"), null);
+            testActor.tell(new Worker.NoMoreWork(), null);
+            eventually(() -> assertTrue(testActor.isTerminated()));
+
+            pending.success("LATE");
+
+            WorkDoneGetMore lateWork = dispatcherProbe.expectMsgClass(WorkDoneGetMore.class);
+            assertThat(lateWork.workId, is(42L));
+        });
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void worker_shouldAskForWorkWhenCreated() throws Exception {
@@ -82,6 +110,16 @@ public class WorkerTest implements Eventually, ActorTesting {
         });
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void worker_shouldAdvertiseItsCreditsWhenCreated() throws Exception {
+        Props props = Props.create(Worker.class, workProcessingFunctionStub, WorkerSettings.create().withCredits(8));
+        withTestActor(props, dispatcherProbe.ref(), testActor -> {
+            GetWork getWork = dispatcherProbe.expectMsgClass(GetWork.class);
+            assertThat(getWork.credits, is(8));
+        });
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void onWork_workerShouldInvokeProcessFunctionAndAskForMoreWhenItCompletesWithFailure() throws Exception {
@@ -92,11 +130,93 @@ public class WorkerTest implements Eventually, ActorTesting {
         withTestActor(props, dispatcherProbe.ref(), testActor -> {
             dispatcherProbe.expectMsgClass(GetWork.class);
 
-            testActor.tell(new Worker.Work<>("WORK!"), null);
+            testActor.tell(new Worker.Work<>(42L, "WORK!"), null);
 
             WorkFailedGetMore moreWork = dispatcherProbe.expectMsgClass(WorkFailedGetMore.class);
 
+            assertThat(moreWork.workId, is(42L));
             assertThat(moreWork.failureOfWorkDone, is(expectedException));
         });
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void onWork_workerShouldAggregateLocallyAndFlushEveryConfiguredNumberOfItems() throws Exception {
+        BiFunction<Integer, ExecutionContextExecutor, Future<Integer>> doubling = (item, ec) -> Futures.successful(item * 2);
+        Props props = Props.create(Worker.class, doubling,
+                WorkerSettings.create().withLocalAggregation(Integer::sum, 2, Duration.create(1, TimeUnit.MINUTES)));
+
+        withTestActor(props, dispatcherProbe.ref(), testActor -> {
+            dispatcherProbe.expectMsgClass(GetWork.class);
+
+            testActor.tell(new Worker.Work<>(1L, 1), null);
+            assertThat(dispatcherProbe.expectMsgClass(WorkAggregatedGetMore.class).workId, is(1L));
+            testActor.tell(new Worker.Work<>(2L, 2), null);
+            assertThat(dispatcherProbe.expectMsgClass(WorkAggregatedGetMore.class).workId, is(2L));
+
+            PartialResult partial = dispatcherProbe.expectMsgClass(PartialResult.class);
+            assertThat(partial.partialResult, is(6));
+            assertThat(partial.itemsAggregated, is(2));
+
+            testActor.tell(new Worker.Work<>(3L, 3), null);
+            dispatcherProbe.expectMsgClass(WorkAggregatedGetMore.class);
+            testActor.tell(new Worker.NoMoreWork(), null);
+            assertThat(dispatcherProbe.expectMsgClass(PartialResult.class).partialResult, is(6));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void onWork_workerShouldRunWorkOnTheConfiguredExecutionDispatcher() throws Exception {
+        BiFunction<String, ExecutionContextExecutor, Future<String>> threadName = (item, ec) -> Futures.future(() -> Thread.currentThread().getName(), ec);
+        Props props = Props.create(Worker.class, threadName, WorkerSettings.create().withExecutionDispatcher("work-pulling.blocking-io-dispatcher"));
+
+        withTestActor(props, dispatcherProbe.ref(), testActor -> {
+            dispatcherProbe.expectMsgClass(GetWork.class);
+
+            testActor.tell(new Worker.Work<>(42L, "WORK!"), null);
+
+            WorkDoneGetMore moreWork = dispatcherProbe.expectMsgClass(WorkDoneGetMore.class);
+            assertThat((String) moreWork.resultOfWorkDone, containsString("work-pulling.blocking-io-dispatcher"));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void onWork_workerShouldRunBlockingWorkOnTheVirtualThreadDispatcher() throws Exception {
+        BiFunction<Integer, ExecutionContextExecutor, Future<Integer>> sleeping = (item, ec) -> Futures.future(() -> {
+            Thread.sleep(100);
+            return item;
+        }, ec);
+        Props props = Props.create(Worker.class, sleeping, WorkerSettings.create().withCredits(512).withExecutionDispatcher("work-pulling.virtual-thread-dispatcher"));
+
+        withTestActor(props, dispatcherProbe.ref(), testActor -> {
+            dispatcherProbe.expectMsgClass(GetWork.class);
+
+            IntStream.range(0, 512).forEach(i -> testActor.tell(new Worker.Work<>(i, i), null));
+
+            dispatcherProbe.receiveN(512, Duration.create(3, TimeUnit.SECONDS));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void onWorkBatch_workerShouldProcessAllItemsAndReplyWithASingleBatchedResult() throws Exception {
+        RuntimeException expectedException = new RuntimeException("KABOOM");
+        workProcessingFunctionStub = (item, ec) -> item.equals("FAIL!") ? Futures.failed(expectedException) : Futures.successful(item + "ED");
+        Props props = Props.create(Worker.class, workProcessingFunctionStub);
+
+        withTestActor(props, dispatcherProbe.ref(), testActor -> {
+            dispatcherProbe.expectMsgClass(GetWork.class);
+
+            testActor.tell(new Worker.WorkBatch<>(new long[]{1L, 2L, 3L}, Arrays.asList("WORK!", "FAIL!", "PLAY!")), null);
+
+            BatchDoneGetMore moreWork = dispatcherProbe.expectMsgClass(BatchDoneGetMore.class);
+
+            assertThat(moreWork.size(), is(3));
+            assertThat(moreWork.workIds, is(new long[]{1L, 2L, 3L}));
+            assertThat(Arrays.asList(moreWork.resultsOfWorkDone), is(Arrays.asList("WORK!ED", null, "PLAY!ED")));
+            assertThat(Arrays.asList(moreWork.failuresOfWorkDone), is(Arrays.asList(null, expectedException, null)));
+        });
+    }
+}